@@ -0,0 +1,148 @@
+package fr.ecodeli.mapper;
+
+import fr.ecodeli.entity.Address;
+import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.AppUserStatus;
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.DocumentType;
+import fr.ecodeli.entity.PreviewStatus;
+import fr.ecodeli.entity.UserAddress;
+import fr.ecodeli.entity.UserAddressId;
+import fr.ecodeli.entity.UserProfile;
+import fr.ecodeli.storage.StorageCodec;
+import fr.ecodeli.web.dto.DocumentMetadataDto;
+import fr.ecodeli.web.dto.UserAddressDto;
+import fr.ecodeli.web.dto.UserDto;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The MapStruct mappers behind {@code /me} and document metadata, for users with no, a few and many
+ * addresses. The generated implementations are wired by hand, as CDI would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"0", "5", "50"})
+    int addressCount;
+
+    private UserMapper userMapper;
+    private UserAddressMapper userAddressMapper;
+    private DocumentMapper documentMapper;
+    private AppUser user;
+    private UserAddress userAddress;
+    private Document document;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        var addressMapper = new AddressMapperImpl();
+        userAddressMapper = new UserAddressMapperImpl();
+        inject(userAddressMapper, AddressMapper.class, addressMapper);
+        userMapper = new UserMapperImpl();
+        inject(userMapper, UserProfileMapper.class, new UserProfileMapperImpl());
+        inject(userMapper, UserAddressMapper.class, userAddressMapper);
+        documentMapper = new DocumentMapperImpl();
+
+        user = AppUser.builder()
+                .id(10002L)
+                .keycloakUserId("0b6a3f5e-8d1c-4f7a-9e2b-5c4d3a2b1f0e")
+                .email("client@ecodeli.local")
+                .phone("0600000002")
+                .status(AppUserStatus.ACTIVE)
+                .build();
+        var profile = new UserProfile();
+        profile.setUserId(user.getId());
+        profile.setUser(user);
+        profile.setFirstName("Clara");
+        profile.setLastName("Client");
+        profile.setBirthDate(LocalDate.of(1998, 5, 12));
+        profile.setDefaultLanguage("fr");
+        profile.setTutorialShownAt(OffsetDateTime.now());
+        user.setProfile(profile);
+        for (int i = 0; i < addressCount; i++) {
+            user.getAddresses().add(userAddress(user, 100L + i, i == 0));
+        }
+        userAddress = userAddress(user, 101L, true);
+
+        document = new Document();
+        setField(document, "id", 201L);
+        document.setStorageKey("courier/5f0c9a1e-3b2d-4c8e-9f7a-1d2e3c4b5a69-id_livreur_001.pdf");
+        document.setFileName("id_livreur_001.pdf");
+        document.setMimeType("application/pdf");
+        document.setSizeBytes(182_345L);
+        document.setSha256("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        document.setType(DocumentType.COURIER_PROOF);
+        document.setStorageCodec(StorageCodec.GZIP);
+        document.setPreviewStatus(PreviewStatus.READY);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserAddressDto userAddressToDto() {
+        return userAddressMapper.toDto(userAddress);
+    }
+
+    @Benchmark
+    public DocumentMetadataDto documentToDto() {
+        return documentMapper.toDto(document);
+    }
+
+    private static UserAddress userAddress(AppUser user, long addressId, boolean isDefault)
+            throws ReflectiveOperationException {
+        var address = new Address();
+        setField(address, "id", addressId);
+        address.setLabel("Maison");
+        address.setLine1(addressId + " Rue de Paris");
+        address.setPostalCode("75001");
+        address.setCity("Paris");
+        address.setCountryCode("FR");
+        address.setLatitude(new BigDecimal("48.8566000"));
+        address.setLongitude(new BigDecimal("2.3522000"));
+        var userAddress = new UserAddress();
+        userAddress.setId(new UserAddressId(user.getId(), addressId));
+        userAddress.setUser(user);
+        userAddress.setAddress(address);
+        userAddress.setDefault(isDefault);
+        return userAddress;
+    }
+
+    private static void inject(Object target, Class<?> type, Object dependency) throws ReflectiveOperationException {
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (field.getType() == type) {
+                field.setAccessible(true);
+                field.set(target, dependency);
+                return;
+            }
+        }
+        throw new NoSuchFieldException(type.getName() + " in " + target.getClass().getName());
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        var field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
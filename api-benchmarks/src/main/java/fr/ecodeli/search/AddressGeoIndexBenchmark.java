@@ -0,0 +1,80 @@
+package fr.ecodeli.search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Radius and nearest-neighbour queries of the address grid, with every address in and around Paris so the
+ * cells are as dense as the index will ever see. The target is well under a millisecond per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddressGeoIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    int addresses;
+
+    @Param({"500", "2000"})
+    double radiusMeters;
+
+    private AddressGeoIndex index;
+    private double[] queryLatitudes;
+    private double[] queryLongitudes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadIndex() {
+        var random = new Random(42);
+        index = new AddressGeoIndex();
+        for (long id = 1; id <= addresses; id++) {
+            index.load(new AddressSnapshot(id, id + " rue de Rivoli", "75001", "Paris", "FR",
+                    latitude(random), longitude(random)));
+        }
+        index.loadFinished();
+        queryLatitudes = new double[QUERIES];
+        queryLongitudes = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryLatitudes[i] = latitude(random);
+            queryLongitudes[i] = longitude(random);
+        }
+    }
+
+    @Benchmark
+    public List<GeoHit> withinRadius() {
+        var i = next++ & (QUERIES - 1);
+        return index.withinRadius(queryLatitudes[i], queryLongitudes[i], radiusMeters, 50);
+    }
+
+    @Benchmark
+    public List<GeoHit> nearest() {
+        var i = next++ & (QUERIES - 1);
+        return index.nearest(queryLatitudes[i], queryLongitudes[i], 10, radiusMeters);
+    }
+
+    private static double latitude(Random random) {
+        return 48.70 + random.nextDouble(0.30);
+    }
+
+    private static double longitude(Random random) {
+        return 2.10 + random.nextDouble(0.50);
+    }
+}
@@ -0,0 +1,70 @@
+package fr.ecodeli.security;
+
+import io.quarkus.oidc.runtime.OidcJwtCallerPrincipal;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import java.util.concurrent.TimeUnit;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.consumer.InvalidJwtException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Claim extraction during first-login provisioning: from an identity attribute, from the JWT claims of a
+ * Keycloak token, and for a claim the token does not carry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClaimExtractionBenchmark {
+
+    private static final String KEYCLOAK_CLAIMS = """
+            {"exp":1767225600,"iat":1767222000,"jti":"6f1c2d3e-4a5b-6c7d-8e9f-0a1b2c3d4e5f",
+             "iss":"http://localhost:8081/realms/ecodeli","aud":"account",
+             "sub":"0b6a3f5e-8d1c-4f7a-9e2b-5c4d3a2b1f0e","typ":"Bearer","azp":"ecodeli",
+             "realm_access":{"roles":["CLIENT","offline_access","uma_authorization"]},
+             "scope":"openid email profile","email_verified":true,"name":"Clara Client",
+             "preferred_username":"client","given_name":"Clara","family_name":"Client",
+             "email":"client@ecodeli.local","phone_number":"0600000002"}""";
+
+    private SecurityIdentity attributeIdentity;
+    private SecurityIdentity tokenIdentity;
+
+    @Setup
+    public void setUp() throws InvalidJwtException {
+        var principal = new OidcJwtCallerPrincipal(JwtClaims.parse(KEYCLOAK_CLAIMS), null);
+        attributeIdentity = QuarkusSecurityIdentity.builder()
+                .setPrincipal(principal)
+                .addAttribute("email", "client@ecodeli.local")
+                .build();
+        tokenIdentity = QuarkusSecurityIdentity.builder()
+                .setPrincipal(principal)
+                .build();
+    }
+
+    @Benchmark
+    public String fromAttribute() {
+        return FirstLoginHandler.attribute(attributeIdentity, "email");
+    }
+
+    @Benchmark
+    public String fromTokenClaim() {
+        return FirstLoginHandler.attribute(tokenIdentity, "email");
+    }
+
+    @Benchmark
+    public String missingClaim() {
+        return FirstLoginHandler.attribute(tokenIdentity, "account_status");
+    }
+}
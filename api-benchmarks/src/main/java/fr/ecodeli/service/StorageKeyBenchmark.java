@@ -0,0 +1,39 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.entity.DocumentType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Storage key generation for an upload, from a short file name to a long one full of whitespace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageKeyBenchmark {
+
+    @Param({
+            "invoice.pdf",
+            "Scan 2025-01-12 carte d'identité recto verso.pdf",
+            "Contrat   de   prestation   logistique   EcoDeli   -   Marchand   Demo   -   version   signée   par"
+                    + "   les   deux   parties   le   12   janvier   2025   (copie   certifiée   conforme).pdf"
+    })
+    String fileName;
+
+    @Benchmark
+    public String generateStorageKey() {
+        return DocumentService.generateStorageKey(fileName, DocumentType.CONTRACT);
+    }
+}
@@ -0,0 +1,88 @@
+package fr.ecodeli.storage;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Upload staging: SHA-256 hashing while copying to the staging directory, against hashing alone, for
+ * payloads from a small scan up to the 5 MiB upload limit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StagingBenchmark {
+
+    @Param({"4096", "262144", "5242880"})
+    int sizeBytes;
+
+    private byte[] payload;
+    private Path storageDirectory;
+    private FileSystemDocumentStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        payload = new byte[sizeBytes];
+        ThreadLocalRandom.current().nextBytes(payload);
+        storageDirectory = Files.createTempDirectory("staging-benchmark");
+        store = new FileSystemDocumentStore(properties(storageDirectory));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(storageDirectory)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String stage() throws IOException {
+        var staged = store.stage(new ByteArrayInputStream(payload), Long.MAX_VALUE);
+        Files.delete(staged.path());
+        return staged.sha256();
+    }
+
+    @Benchmark
+    public String hashOnly() throws NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256");
+        digest.update(payload);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static DocumentStorageProperties properties(Path storageDirectory) {
+        return (DocumentStorageProperties) Proxy.newProxyInstance(DocumentStorageProperties.class.getClassLoader(),
+                new Class<?>[]{DocumentStorageProperties.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "storagePath" -> storageDirectory.toString();
+                    case "shardDepth" -> 2;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,97 @@
+package fr.ecodeli.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The API under test, running the packaged application in a separate JVM with the {@code loadtest} profile,
+ * so the driver's own allocations and threads do not distort its measurements. Its output goes to
+ * {@code api.log} in the work directory.
+ */
+final class ApiProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final URI baseUri;
+    private final Path log;
+
+    private ApiProcess(Process process, URI baseUri, Path log) {
+        this.process = process;
+        this.baseUri = baseUri;
+        this.log = log;
+    }
+
+    static ApiProcess start(LoadTestOptions options, StubTokenIssuer issuer) throws IOException {
+        if (!Files.isRegularFile(options.apiJar())) {
+            throw new IllegalStateException("API not packaged, run mvn package in ../api first: "
+                    + options.apiJar().toAbsolutePath());
+        }
+        Files.createDirectories(options.workDir());
+        var log = options.workDir().resolve("api.log");
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.apiJvmArgs());
+        command.add("-Dquarkus.profile=loadtest");
+        command.add("-jar");
+        command.add(options.apiJar().toAbsolutePath().toString());
+        var builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        var environment = builder.environment();
+        environment.put("LOADTEST_HTTP_PORT", Integer.toString(options.apiPort()));
+        environment.put("LOADTEST_OIDC_PUBLIC_KEY", issuer.publicKey());
+        environment.put("LOADTEST_DB_URL", options.dbUrl());
+        environment.put("LOADTEST_DB_USER", options.dbUser());
+        environment.put("LOADTEST_DB_PASSWORD", options.dbPassword());
+        environment.put("LOADTEST_STORAGE_PATH", options.workDir().resolve("documents").toAbsolutePath().toString());
+        return new ApiProcess(builder.start(), URI.create("http://localhost:" + options.apiPort()), log);
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Polls the metrics endpoint until the application answers, failing fast if the process exits.
+     */
+    void awaitReady(HttpClient client) throws InterruptedException {
+        var request = HttpRequest.newBuilder(baseUri.resolve("/q/metrics")).GET().build();
+        var deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("API exited with status " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("API not ready after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package fr.ecodeli.loadtest;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the same scenario against the API on the worker pool, then on virtual threads, each time in a fresh
+ * JVM and database, and writes the two reports side by side to {@code comparison.md} in the work directory,
+ * ready to be recorded in the README.
+ */
+public final class LoadComparison {
+
+    private static final String WORKER_POOL = "-Dquarkus.virtual-threads.enabled=false";
+
+    private LoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = LoadTestOptions.parse(args);
+        var workerPool = LoadTest.run(options.forRun("worker-pool", List.of(WORKER_POOL)));
+        var virtualThreads = LoadTest.run(options.forRun("virtual-threads", List.of()));
+        var table = table(workerPool, virtualThreads);
+        System.out.print(table);
+        Files.writeString(options.workDir().resolve("comparison.md"), table);
+    }
+
+    static String table(LoadReport workerPool, LoadReport virtualThreads) {
+        var out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%d clients, mix %s, %.0f s measured per run%n%n",
+                virtualThreads.clients(), virtualThreads.mix(), virtualThreads.seconds()));
+        out.append("| operation | threads | req/s | p50 ms | p99 ms | p99.9 ms | errors | SQL/req |\n");
+        out.append("|-----------|---------|------:|-------:|-------:|---------:|-------:|--------:|\n");
+        for (int i = 0; i <= virtualThreads.rows().size(); i++) {
+            var baseline = i < workerPool.rows().size() ? workerPool.rows().get(i) : workerPool.total();
+            var candidate = i < virtualThreads.rows().size() ? virtualThreads.rows().get(i) : virtualThreads.total();
+            row(out, "worker pool", baseline);
+            row(out, "virtual", candidate);
+        }
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String threads, LoadReport.Row row) {
+        out.append(String.format(Locale.ROOT, "| %s | %s | %.1f | %.2f | %.2f | %.2f | %d | %.2f |%n",
+                row.operation(), threads, row.throughput(), row.p50(), row.p99(), row.p999(), row.errors(),
+                row.statementsPerRequest()));
+    }
+}
@@ -0,0 +1,31 @@
+package fr.ecodeli.loadtest;
+
+import java.nio.file.Files;
+
+/**
+ * End-to-end load test of the document and user endpoints with the API in a separate JVM. Starts the
+ * packaged API against a local PostgreSQL database with tokens from a {@link StubTokenIssuer}, runs the
+ * {@link LoadDriver} shared with the API's in-process load test, then prints the report and writes it to
+ * {@code report.json} in the work directory.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(LoadTestOptions.parse(args));
+    }
+
+    static LoadReport run(LoadTestOptions options) throws Exception {
+        var issuer = new StubTokenIssuer();
+        var client = LoadDriver.httpClient();
+        try (var api = ApiProcess.start(options, issuer)) {
+            api.awaitReady(client);
+            var report = LoadDriver.run(options, issuer, client, api.baseUri());
+            report.print(System.out);
+            Files.writeString(options.workDir().resolve("report.json"), report.toJson());
+            return report;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package fr.ecodeli.concurrency;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Runs before the transaction interceptor, so a permit covers the whole transaction of the method.
+ */
+@DatabaseBound
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class DatabaseBoundInterceptor {
+
+    private final DatabaseLimiter limiter;
+
+    @Inject
+    public DatabaseBoundInterceptor(DatabaseLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @AroundInvoke
+    Object limit(InvocationContext context) throws Exception {
+        return limiter.call(context::proceed);
+    }
+}
@@ -0,0 +1,75 @@
+package fr.ecodeli.concurrency;
+
+import fr.ecodeli.config.ConcurrencyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of requests doing database work at once. On virtual threads nothing else bounds
+ * concurrency, and thousands of requests contending for a small connection pool would time out in the pool
+ * instead of queueing fairly here. A request that does not get a permit in time is answered with 503.
+ */
+@ApplicationScoped
+public class DatabaseLimiter {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Timer waitTimer;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    @Inject
+    public DatabaseLimiter(ConcurrencyProperties config, MeterRegistry registry) {
+        this.permits = new Semaphore(config.databasePermits(), true);
+        this.acquireTimeoutNanos = config.databaseAcquireTimeout().toNanos();
+        this.waitTimer = Timer.builder("ecodeli.database.permits.wait")
+                .description("Time spent waiting for a database permit")
+                .register(registry);
+        Gauge.builder("ecodeli.database.permits.available", permits, Semaphore::availablePermits)
+                .description("Database permits currently free")
+                .register(registry);
+        Gauge.builder("ecodeli.database.permits.waiting", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a database permit")
+                .register(registry);
+    }
+
+    /**
+     * Runs the work while holding a permit. A thread already holding one, because database-bound methods
+     * call each other, runs the work directly so it cannot deadlock on itself.
+     */
+    public <T> T call(Work<T> work) throws Exception {
+        if (holding.get() != null) {
+            return work.call();
+        }
+        var started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        }
+        holding.set(Boolean.TRUE);
+        try {
+            return work.call();
+        } finally {
+            holding.remove();
+            permits.release();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+
+        T call() throws Exception;
+    }
+}
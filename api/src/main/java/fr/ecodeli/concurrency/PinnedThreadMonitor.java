@@ -0,0 +1,86 @@
+package fr.ecodeli.concurrency;
+
+import fr.ecodeli.config.ConcurrencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.jboss.logging.Logger;
+
+/**
+ * Reports virtual threads that blocked while pinned to their carrier, typically inside a {@code synchronized}
+ * block or a native call such as a JDBC driver holding a monitor. Each distinct blocking site is logged once
+ * with its stack; every occurrence is timed.
+ */
+@ApplicationScoped
+public class PinnedThreadMonitor {
+
+    private static final Logger LOG = Logger.getLogger(PinnedThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String VIRTUAL_THREAD_CLASS = "java.lang.VirtualThread";
+    private static final int MAX_REPORTED_SITES = 100;
+    private static final int REPORTED_FRAMES = 12;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Inject
+    public PinnedThreadMonitor(ConcurrencyProperties config, MeterRegistry registry) {
+        this.enabled = config.pinnedThreadMonitor();
+        this.threshold = config.pinnedThreshold();
+        this.pinnedTimer = Timer.builder("ecodeli.virtual-threads.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        var frames = stackTrace.getFrames().stream()
+                .dropWhile(frame -> frame.getMethod().getType().getName().equals(VIRTUAL_THREAD_CLASS))
+                .limit(REPORTED_FRAMES)
+                .map(PinnedThreadMonitor::describe)
+                .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(frames)) {
+            LOG.warnf("Virtual thread pinned for %d ms:%n%s", event.getDuration().toMillis(), frames);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        var method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName() + ":" + frame.getLineNumber();
+    }
+}
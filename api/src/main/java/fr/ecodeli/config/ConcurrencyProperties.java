@@ -0,0 +1,43 @@
+package fr.ecodeli.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+
+@ConfigMapping(prefix = "app.concurrency")
+public interface ConcurrencyProperties {
+
+    /**
+     * Maximum number of requests doing database work at once. Sized below the datasource pool, so requests
+     * queue in the limiter rather than for a connection while the background work that runs outside the
+     * limiter, such as preview generation and change-log pruning, still gets its connections.
+     *
+     * @return the number of database permits
+     */
+    @WithDefault("16")
+    int databasePermits();
+
+    /**
+     * How long a request waits for a database permit before it is answered with 503.
+     *
+     * @return the permit wait timeout
+     */
+    @WithDefault("PT5S")
+    Duration databaseAcquireTimeout();
+
+    /**
+     * Whether virtual threads pinned to their carrier are reported, from the JDK Flight Recorder events.
+     *
+     * @return whether pinned virtual threads are reported
+     */
+    @WithDefault("true")
+    boolean pinnedThreadMonitor();
+
+    /**
+     * Pinning shorter than this is not reported.
+     *
+     * @return the pinning duration threshold
+     */
+    @WithDefault("PT0.02S")
+    Duration pinnedThreshold();
+}
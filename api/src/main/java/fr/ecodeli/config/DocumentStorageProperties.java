@@ -1,7 +1,11 @@
 package fr.ecodeli.config;
 
+import fr.ecodeli.entity.DocumentType;
+import fr.ecodeli.storage.StorageCodec;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.Map;
 
 @ConfigMapping(prefix = "app.documents")
 public interface DocumentStorageProperties {
@@ -16,4 +20,118 @@ public interface DocumentStorageProperties {
      */
     @WithDefault("10485760") // default 10MB
     long maxSizeBytes();
-}
\ No newline at end of file
+
+    /**
+     * Stores each distinct content once under its SHA-256, shared by every document that uploads it.
+     *
+     * @return whether content-addressed storage is enabled
+     */
+    @WithDefault("false")
+    boolean contentAddressed();
+
+    /**
+     * Number of hash-prefix directory levels each storage key is fanned out into (0 keeps keys flat).
+     *
+     * @return the shard depth, between 0 and 4
+     */
+    @WithDefault("2")
+    int shardDepth();
+
+    /**
+     * Moves files stored with another shard depth to the current layout in the background at startup.
+     *
+     * @return whether re-sharding runs at startup
+     */
+    @WithDefault("false")
+    boolean reshardOnStartup();
+
+    /**
+     * How long a resumable upload session is kept without receiving any chunk.
+     *
+     * @return the upload session time-to-live
+     */
+    @WithDefault("PT24H")
+    Duration uploadSessionTtl();
+
+    /**
+     * Maximum number of documents in a single ZIP export.
+     *
+     * @return the export entry limit
+     */
+    @WithDefault("1000")
+    int exportMaxEntries();
+
+    /**
+     * Number of background threads generating previews.
+     *
+     * @return the preview worker count
+     */
+    @WithDefault("2")
+    int previewWorkers();
+
+    /**
+     * Maximum number of documents waiting for a preview worker. Documents that do not fit stay pending and
+     * are picked up again at the next startup.
+     *
+     * @return the preview queue capacity
+     */
+    @WithDefault("200")
+    int previewQueueCapacity();
+
+    /**
+     * Longest side of a generated preview, in pixels.
+     *
+     * @return the preview size in pixels
+     */
+    @WithDefault("320")
+    int previewMaxDimension();
+
+    /**
+     * Codec used to store each document type at rest; types without an entry are stored as-is.
+     *
+     * @return the storage codec per document type
+     */
+    Map<DocumentType, StorageCodec> codecs();
+
+    /**
+     * Number of leading bytes deflated to decide whether an upload is worth compressing.
+     *
+     * @return the compressibility sample size in bytes
+     */
+    @WithDefault("65536")
+    int compressionSampleBytes();
+
+    /**
+     * Maximum compressed to original size ratio of the sample for the content to be stored compressed.
+     *
+     * @return the compression ratio threshold
+     */
+    @WithDefault("0.9")
+    double compressionMaxRatio();
+
+    /**
+     * Whether downloads are streamed with asynchronous file reads on the event loop instead of being
+     * handed to the framework as a file part.
+     *
+     * @return whether downloads are streamed asynchronously
+     */
+    @WithDefault("true")
+    boolean asyncDownload();
+
+    /**
+     * Size of the pooled buffers asynchronous downloads read into.
+     *
+     * @return the download buffer size in bytes
+     */
+    @WithDefault("16384")
+    int downloadBufferBytes();
+
+    /**
+     * Number of threads running the file reads of asynchronous downloads. A download has at most one read in
+     * flight, so further reads queue for these threads instead of growing the JDK's default, unbounded pool.
+     *
+     * @return the download read thread count
+     */
+    @WithDefault("8")
+    int downloadReadThreads();
+}
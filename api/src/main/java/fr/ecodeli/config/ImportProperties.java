@@ -0,0 +1,33 @@
+package fr.ecodeli.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+@ConfigMapping(prefix = "app.imports")
+public interface ImportProperties {
+
+    /**
+     * Number of imported rows written per transaction and JDBC batch.
+     *
+     * @return the import batch size
+     */
+    @WithDefault("500")
+    int batchSize();
+
+    /**
+     * Maximum number of row errors listed in an import report; further errors are only counted.
+     *
+     * @return the reported error limit
+     */
+    @WithDefault("1000")
+    int maxReportedErrors();
+
+    /**
+     * Maximum size in bytes of an import body, which may exceed the global HTTP body limit when it is sent
+     * with chunked transfer coding.
+     *
+     * @return the maximum import body size in bytes
+     */
+    @WithDefault("209715200") // default 200MB
+    long maxBodyBytes();
+}
@@ -0,0 +1,33 @@
+package fr.ecodeli.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import java.time.Duration;
+
+@ConfigMapping(prefix = "app.sync")
+public interface SyncProperties {
+
+    /**
+     * How long change log entries are kept. Clients whose cursor is older must resynchronize in full.
+     *
+     * @return the change log retention
+     */
+    @WithDefault("P30D")
+    Duration retention();
+
+    /**
+     * Interval between two prunings of the change log.
+     *
+     * @return the pruning interval
+     */
+    @WithDefault("PT1H")
+    Duration pruneInterval();
+
+    /**
+     * Maximum number of change log entries read per delta request.
+     *
+     * @return the delta page size
+     */
+    @WithDefault("500")
+    int pageSize();
+}
@@ -1,5 +1,6 @@
 package fr.ecodeli.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -7,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -17,9 +19,10 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @Entity
+@Cacheable
 @Table(name = "address",
         indexes = {
-                @Index(name = "ix_address_postal_code", columnList = "postal_code"),
+                @Index(name = "ix_address_postal_code", columnList = "postal_code, id"),
                 @Index(name = "ix_address_city", columnList = "city")
         })
 public class Address {
@@ -52,4 +55,9 @@ public class Address {
 
     @Column(precision = 10, scale = 7)
     private BigDecimal longitude;
+
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    private long version;
 }
@@ -0,0 +1,45 @@
+package fr.ecodeli.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One change visible to a user, numbered by a per-user sequence. Rows are only written through
+ * {@code ChangeLogRepository.append}, which serializes writers on the user row so that sequence order is
+ * commit order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "ix_change_log_changed_at", columnList = "changed_at")
+})
+public class ChangeLogEntry {
+
+    @EmbeddedId
+    private ChangeLogEntryId id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private ChangeType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeOperation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private OffsetDateTime changedAt;
+}
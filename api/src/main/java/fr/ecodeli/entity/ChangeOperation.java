@@ -0,0 +1,6 @@
+package fr.ecodeli.entity;
+
+public enum ChangeOperation {
+    UPSERT,
+    DELETE
+}
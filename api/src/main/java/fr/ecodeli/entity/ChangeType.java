@@ -0,0 +1,8 @@
+package fr.ecodeli.entity;
+
+public enum ChangeType {
+    USER,
+    PROFILE,
+    ADDRESS,
+    DOCUMENT
+}
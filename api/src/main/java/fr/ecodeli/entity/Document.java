@@ -1,5 +1,6 @@
 package fr.ecodeli.entity;
 
+import fr.ecodeli.storage.StorageCodec;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -21,7 +22,8 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "document", indexes = {
-        @Index(name = "ix_document_storage_key", columnList = "storage_key", unique = true)
+        @Index(name = "ix_document_storage_key", columnList = "storage_key"),
+        @Index(name = "ix_document_preview_status", columnList = "preview_status")
 })
 public class Document {
 
@@ -30,7 +32,7 @@ public class Document {
     @Setter(AccessLevel.NONE)
     private Long id;
 
-    @Column(name = "storage_key", nullable = false, unique = true, length = 255)
+    @Column(name = "storage_key", nullable = false, length = 255)
     private String storageKey;
 
     @Column(name = "file_name", nullable = false, length = 255)
@@ -49,6 +51,14 @@ public class Document {
     @Column(nullable = false, length = 64)
     private String sha256;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_codec", nullable = false, length = 16)
+    private StorageCodec storageCodec = StorageCodec.NONE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "preview_status", nullable = false, length = 16)
+    private PreviewStatus previewStatus = PreviewStatus.PENDING;
+
     @Column(name = "created_at", nullable = false)
     @Setter(AccessLevel.NONE)
     private OffsetDateTime createdAt;
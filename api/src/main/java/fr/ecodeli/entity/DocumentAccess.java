@@ -39,7 +39,13 @@ public class DocumentAccess {
     @Column(name = "can_read", nullable = false)
     private boolean canRead = true;
 
-    public static DocumentAccess of(Document document, long userId, boolean canRead) {
+    /**
+     * Set on the uploader's row only: it may share and revoke the document, and cannot be revoked itself.
+     */
+    @Column(name = "can_manage", nullable = false)
+    private boolean canManage;
+
+    public static DocumentAccess of(Document document, long userId, boolean canRead, boolean canManage) {
         var access = new DocumentAccess();
         access.setDocument(document);
         var user = AppUser.builder()
@@ -48,6 +54,7 @@ public class DocumentAccess {
         access.setUser(user);
         access.setId(new DocumentAccessId(document.getId(), userId));
         access.setCanRead(canRead);
+        access.setCanManage(canManage);
         return access;
     }
 }
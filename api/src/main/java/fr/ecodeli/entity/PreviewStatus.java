@@ -0,0 +1,8 @@
+package fr.ecodeli.entity;
+
+public enum PreviewStatus {
+    PENDING,
+    READY,
+    FAILED,
+    UNSUPPORTED
+}
@@ -1,5 +1,6 @@
 package fr.ecodeli.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
@@ -17,6 +18,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @Entity
+@Cacheable
 @Table(name = "user_address",
         indexes = {
                 @Index(name = "ix_user_address_address", columnList = "address_id")
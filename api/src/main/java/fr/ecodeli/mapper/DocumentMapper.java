@@ -1,6 +1,7 @@
 package fr.ecodeli.mapper;
 
 import fr.ecodeli.entity.Document;
+import fr.ecodeli.service.DocumentSnapshot;
 import fr.ecodeli.web.dto.DocumentMetadataDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -11,4 +12,6 @@ public interface DocumentMapper {
     @Mapping(target = "createdAt", source = "createdAt")
     @Mapping(target = "storageKey", source = "storageKey")
     DocumentMetadataDto toDto(Document document);
+
+    DocumentMetadataDto toDto(DocumentSnapshot document);
 }
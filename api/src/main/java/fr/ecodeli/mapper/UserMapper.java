@@ -2,6 +2,7 @@ package fr.ecodeli.mapper;
 
 import fr.ecodeli.entity.AppUser;
 import fr.ecodeli.web.dto.UserDto;
+import fr.ecodeli.web.dto.UserSummaryDto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -14,4 +15,6 @@ public interface UserMapper {
     @Mapping(target = "profile", source = "profile")
     @Mapping(target = "addresses", source = "addresses")
     UserDto toDto(AppUser entity);
+
+    UserSummaryDto toSummaryDto(AppUser entity);
 }
@@ -0,0 +1,75 @@
+package fr.ecodeli.metrics;
+
+import fr.ecodeli.entity.DocumentType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Document traffic and storage timings: bytes uploaded and downloaded per document type, and the time spent
+ * staging uploads, committing them to their storage key and opening stored content.
+ */
+@ApplicationScoped
+public class DocumentMetrics {
+
+    private final Map<DocumentType, Counter> uploadedBytes = new EnumMap<>(DocumentType.class);
+    private final Map<DocumentType, Counter> downloadedBytes = new EnumMap<>(DocumentType.class);
+    private final Timer stageTimer;
+    private final Timer commitTimer;
+    private final Timer openTimer;
+
+    @Inject
+    public DocumentMetrics(MeterRegistry registry) {
+        for (var type : DocumentType.values()) {
+            uploadedBytes.put(type, bytesCounter(registry, "upload", type));
+            downloadedBytes.put(type, bytesCounter(registry, "download", type));
+        }
+        this.stageTimer = storageTimer(registry, "stage");
+        this.commitTimer = storageTimer(registry, "commit");
+        this.openTimer = storageTimer(registry, "open");
+    }
+
+    public void uploaded(DocumentType type, long bytes) {
+        uploadedBytes.get(type).increment(bytes);
+    }
+
+    public void downloaded(DocumentType type, long bytes) {
+        downloadedBytes.get(type).increment(bytes);
+    }
+
+    /**
+     * Receiving, hashing and writing an upload to its staging file.
+     */
+    public Timer stageTimer() {
+        return stageTimer;
+    }
+
+    public Timer commitTimer() {
+        return commitTimer;
+    }
+
+    public Timer openTimer() {
+        return openTimer;
+    }
+
+    private static Counter bytesCounter(MeterRegistry registry, String direction, DocumentType type) {
+        return Counter.builder("ecodeli.documents.transferred")
+                .baseUnit("bytes")
+                .description("Document content received from or sent to clients")
+                .tag("direction", direction)
+                .tag("type", type.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+    }
+
+    private static Timer storageTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("ecodeli.documents.storage")
+                .description("Time spent in document storage operations")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
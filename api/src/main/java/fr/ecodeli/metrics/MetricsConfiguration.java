@@ -0,0 +1,39 @@
+package fr.ecodeli.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+@Singleton
+public class MetricsConfiguration {
+
+    private static final double MIN_LATENCY_NANOS = Duration.ofMillis(1).toNanos();
+    private static final double MAX_LATENCY_NANOS = Duration.ofSeconds(60).toNanos();
+
+    /**
+     * Publishes histogram buckets for the HTTP server timers, tagged per endpoint, and for the application
+     * timers, so p99 latencies can be aggregated across instances in Prometheus.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER
+                        || !(id.getName().startsWith("http.server.requests") || id.getName().startsWith("ecodeli."))) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue(MIN_LATENCY_NANOS)
+                        .maximumExpectedValue(MAX_LATENCY_NANOS)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
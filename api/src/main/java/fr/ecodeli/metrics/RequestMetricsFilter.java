@@ -0,0 +1,61 @@
+package fr.ecodeli.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ResourceInfo;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+/**
+ * Records, per resource method, the SQL statements and the transaction time each request needed. Latency
+ * itself is already timed per endpoint by the HTTP server binder.
+ */
+@ApplicationScoped
+public class RequestMetricsFilter {
+
+    private static final double[] STATEMENT_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500};
+
+    private final MeterRegistry registry;
+    private final RequestStatistics statistics;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    @Inject
+    public RequestMetricsFilter(MeterRegistry registry, RequestStatistics statistics) {
+        this.registry = registry;
+        this.statistics = statistics;
+    }
+
+    @ServerResponseFilter
+    public void record(ResourceInfo resourceInfo) {
+        var method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+        var methodMeters = meters.computeIfAbsent(method, this::register);
+        methodMeters.statements().record(statistics.statements());
+        methodMeters.transactionTime().record(statistics.transactionNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Meters register(Method method) {
+        var resource = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Meters(
+                DistributionSummary.builder("ecodeli.request.statements")
+                        .description("SQL statements executed per request")
+                        .tag("resource", resource)
+                        .serviceLevelObjectives(STATEMENT_BUCKETS)
+                        .register(registry),
+                Timer.builder("ecodeli.request.transactions")
+                        .description("Time spent in transactions per request")
+                        .tag("resource", resource)
+                        .register(registry));
+    }
+
+    private record Meters(DistributionSummary statements, Timer transactionTime) {
+    }
+}
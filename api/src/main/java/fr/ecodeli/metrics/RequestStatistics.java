@@ -0,0 +1,29 @@
+package fr.ecodeli.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Database work done on behalf of the current request, reported by {@link RequestMetricsFilter}.
+ */
+@RequestScoped
+public class RequestStatistics {
+
+    private int statements;
+    private long transactionNanos;
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void transactionCompleted(long nanos) {
+        transactionNanos += nanos;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long transactionNanos() {
+        return transactionNanos;
+    }
+}
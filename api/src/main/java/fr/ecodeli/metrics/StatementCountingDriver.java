@@ -0,0 +1,103 @@
+package fr.ecodeli.metrics;
+
+import io.quarkus.arc.Arc;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Wraps the PostgreSQL driver to count, for the current request, every statement sent to the database:
+ * those Hibernate runs and those run directly on the connection through {@code Session.doWork}. A batch
+ * counts as one statement. Statements run outside a request, such as those of background jobs, are not
+ * counted. Configured as {@code quarkus.datasource.jdbc.driver}, below the Agroal pool.
+ */
+public class StatementCountingDriver implements Driver {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement",
+            "prepareCall");
+    private static final Set<String> EXECUTIONS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final Driver delegate = new org.postgresql.Driver();
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        var connection = delegate.connect(url, info);
+        return connection == null ? null : wrap(Connection.class, connection, (proxy, method, args) -> {
+            var result = invoke(connection, method, args);
+            if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                return wrap(method.getReturnType(), statement, countingExecutions(statement));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return delegate.acceptsURL(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return delegate.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return delegate.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return delegate.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return delegate.jdbcCompliant();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    private static InvocationHandler countingExecutions(Statement statement) {
+        return (proxy, method, args) -> {
+            if (EXECUTIONS.contains(method.getName())) {
+                statementExecuted();
+            }
+            return invoke(statement, method, args);
+        };
+    }
+
+    private static void statementExecuted() {
+        var container = Arc.container();
+        if (container != null && container.requestContext().isActive()) {
+            container.instance(RequestStatistics.class).get().statementExecuted();
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingDriver.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
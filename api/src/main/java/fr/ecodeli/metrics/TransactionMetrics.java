@@ -0,0 +1,67 @@
+package fr.ecodeli.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionScoped;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JTA transaction from its start to its completion, and adds the time to the statistics of the
+ * request it ran for. Nested {@code requiringNew} transactions are timed separately, so their time is
+ * counted both on their own and within the transaction they suspended.
+ */
+@ApplicationScoped
+public class TransactionMetrics {
+
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final RequestStatistics statistics;
+    private final ManagedContext requestContext;
+    private final Timer committed;
+    private final Timer rolledBack;
+
+    @Inject
+    public TransactionMetrics(TransactionSynchronizationRegistry transactionRegistry,
+                              RequestStatistics statistics,
+                              MeterRegistry registry) {
+        this.transactionRegistry = transactionRegistry;
+        this.statistics = statistics;
+        this.requestContext = Arc.container().requestContext();
+        this.committed = transactionTimer(registry, "committed");
+        this.rolledBack = transactionTimer(registry, "rolled_back");
+    }
+
+    void onBegin(@Observes @Initialized(TransactionScoped.class) Object event) {
+        var started = System.nanoTime();
+        var inRequest = requestContext.isActive();
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                var elapsed = System.nanoTime() - started;
+                (status == Status.STATUS_COMMITTED ? committed : rolledBack).record(elapsed, TimeUnit.NANOSECONDS);
+                if (inRequest && requestContext.isActive()) {
+                    statistics.transactionCompleted(elapsed);
+                }
+            }
+        });
+    }
+
+    private static Timer transactionTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("ecodeli.transactions")
+                .description("Duration of JTA transactions, from begin to completion")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -2,8 +2,50 @@ package fr.ecodeli.repository;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import fr.ecodeli.entity.Address;
+import java.util.ArrayList;
+import java.util.List;
 
 @ApplicationScoped
 public class AddressRepository implements PanacheRepository<Address> {
-}
\ No newline at end of file
+
+    /**
+     * Lists addresses after a keyset position, ordered by id or by postal code (then id), matching the
+     * {@code ix_address_postal_code} index. {@code afterPostalCode} is only used when ordering by postal code.
+     */
+    public List<Address> listPage(String postalCodePrefix, String city, String countryCode, boolean byPostalCode,
+                                  String afterPostalCode, long afterId, int limit) {
+        var conditions = new ArrayList<String>();
+        var parameters = new Parameters();
+        if (postalCodePrefix != null && !postalCodePrefix.isBlank()) {
+            conditions.add("postalCode like :postalCodePrefix escape '!'");
+            parameters.and("postalCodePrefix", LikePatterns.startsWith(postalCodePrefix));
+        }
+        if (city != null && !city.isBlank()) {
+            conditions.add("city = :city");
+            parameters.and("city", city);
+        }
+        if (countryCode != null && !countryCode.isBlank()) {
+            conditions.add("countryCode = :countryCode");
+            parameters.and("countryCode", countryCode.toUpperCase());
+        }
+        if (byPostalCode && afterPostalCode != null) {
+            conditions.add("(postalCode, id) > (:afterPostalCode, :afterId)");
+            parameters.and("afterPostalCode", afterPostalCode).and("afterId", afterId);
+        } else if (!byPostalCode && afterId > 0) {
+            conditions.add("id > :afterId");
+            parameters.and("afterId", afterId);
+        }
+        var sort = byPostalCode ? Sort.by("postalCode").and("id") : Sort.by("id");
+        return find(String.join(" and ", conditions), sort, parameters).range(0, limit - 1).list();
+    }
+
+    /**
+     * Lists addresses after the given id, in id order, for scans over the whole table.
+     */
+    public List<Address> listAfter(long afterId, int limit) {
+        return find("id > ?1", Sort.by("id"), afterId).range(0, limit - 1).list();
+    }
+}
@@ -1,9 +1,16 @@
 package fr.ecodeli.repository;
 
 import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.AppUserStatus;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import org.hibernate.Session;
 
 @ApplicationScoped
 public class AppUserRepository implements PanacheRepository<AppUser> {
@@ -15,4 +22,73 @@ public class AppUserRepository implements PanacheRepository<AppUser> {
     public Optional<AppUser> findByEmail(String email) {
         return find("email", email).firstResultOptional();
     }
+
+    /**
+     * Lists users after a keyset position, ordered by id or by email (then id), both served by an index.
+     * {@code afterEmail} is only used when ordering by email.
+     */
+    public List<AppUser> listPage(AppUserStatus status, String emailPrefix, boolean byEmail,
+                                  String afterEmail, long afterId, int limit) {
+        var conditions = new ArrayList<String>();
+        var parameters = new Parameters();
+        if (status != null) {
+            conditions.add("status = :status");
+            parameters.and("status", status);
+        }
+        if (emailPrefix != null && !emailPrefix.isBlank()) {
+            conditions.add("email like :emailPrefix escape '!'");
+            parameters.and("emailPrefix", LikePatterns.startsWith(emailPrefix.toLowerCase()));
+        }
+        if (byEmail && afterEmail != null) {
+            conditions.add("(email, id) > (:afterEmail, :afterId)");
+            parameters.and("afterEmail", afterEmail).and("afterId", afterId);
+        } else if (!byEmail && afterId > 0) {
+            conditions.add("id > :afterId");
+            parameters.and("afterId", afterId);
+        }
+        var sort = byEmail ? Sort.by("email").and("id") : Sort.by("id");
+        return find(String.join(" and ", conditions), sort, parameters).range(0, limit - 1).list();
+    }
+
+    /**
+     * Loads the user with its profile, addresses and their address rows in a single statement, for
+     * mapping the whole aggregate.
+     */
+    public Optional<AppUser> findWithDetails(Long id) {
+        return find("""
+                select u from AppUser u
+                left join fetch u.profile
+                left join fetch u.addresses ua
+                left join fetch ua.address
+                where u.id = ?1""", id).firstResultOptional();
+    }
+
+    /**
+     * Inserts the user unless a row with the same Keycloak id or email already exists, without failing the
+     * transaction when a concurrent insert wins. The id is drawn from the entity sequence; a value fetched
+     * outside Hibernate's pooled blocks never collides with the ids it hands out.
+     *
+     * @return the id of the inserted row, or empty if nothing was inserted
+     */
+    public Optional<Long> insertIfAbsent(AppUser user) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    INSERT INTO app_user (id, keycloak_user_id, email, phone, status, created_at, updated_at, version)
+                    VALUES (nextval('app_user_seq'), ?, ?, ?, ?, now(), now(), 0)
+                    ON CONFLICT DO NOTHING
+                    RETURNING id""")) {
+                statement.setString(1, user.getKeycloakUserId());
+                statement.setString(2, user.getEmail());
+                if (user.getPhone() == null) {
+                    statement.setNull(3, Types.VARCHAR);
+                } else {
+                    statement.setString(3, user.getPhone());
+                }
+                statement.setString(4, user.getStatus().name());
+                try (var result = statement.executeQuery()) {
+                    return result.next() ? Optional.of(result.getLong(1)) : Optional.<Long>empty();
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,105 @@
+package fr.ecodeli.repository;
+
+import fr.ecodeli.entity.ChangeLogEntry;
+import fr.ecodeli.entity.ChangeLogEntryId;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import org.hibernate.Session;
+
+@ApplicationScoped
+public class ChangeLogRepository implements PanacheRepositoryBase<ChangeLogEntry, ChangeLogEntryId> {
+
+    /**
+     * Appends changes to their users' logs. The user rows are locked first, in id order, and each entry is
+     * numbered in its own statement after the lock is held, so concurrent writers for a user commit in
+     * sequence order and a reader never sees a gap later filled by a smaller number. The lock is
+     * {@code FOR NO KEY UPDATE}, which does not conflict with the {@code FOR KEY SHARE} locks foreign key
+     * checks take on the same rows, e.g. when access rows were inserted earlier in the transaction. Changes
+     * for users that do not exist are dropped.
+     */
+    public void append(List<NewChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            var userIds = changes.stream().map(NewChange::userId).distinct().sorted().toArray();
+            var existing = new HashSet<Long>();
+            try (var lock = connection.prepareStatement(
+                    "SELECT id FROM app_user WHERE id = ANY (?) ORDER BY id FOR NO KEY UPDATE")) {
+                lock.setArray(1, connection.createArrayOf("bigint", userIds));
+                try (var result = lock.executeQuery()) {
+                    while (result.next()) {
+                        existing.add(result.getLong(1));
+                    }
+                }
+            }
+            try (var insert = connection.prepareStatement("""
+                    INSERT INTO change_log (user_id, seq, entity_type, entity_id, operation, changed_at)
+                    SELECT ?, coalesce(max(seq), 0) + 1, ?, ?, ?, now()
+                    FROM change_log WHERE user_id = ?""")) {
+                for (var change : changes) {
+                    if (!existing.contains(change.userId())) {
+                        continue;
+                    }
+                    insert.setLong(1, change.userId());
+                    insert.setString(2, change.type().name());
+                    insert.setLong(3, change.entityId());
+                    insert.setString(4, change.operation().name());
+                    insert.setLong(5, change.userId());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    public List<ChangeLogEntry> listAfter(Long userId, long afterSeq, int limit) {
+        return find("id.userId = ?1 and id.seq > ?2", Sort.by("id.seq"), userId, afterSeq)
+                .range(0, limit - 1)
+                .list();
+    }
+
+    /**
+     * @return the lowest and highest sequence numbers in the user's log, or {@code null} when it is empty
+     */
+    public long[] bounds(Long userId) {
+        var row = getEntityManager().createQuery(
+                        "select min(e.id.seq), max(e.id.seq) from ChangeLogEntry e where e.id.userId = :userId",
+                        Object[].class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+        return row[0] == null ? null : new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+    }
+
+    /**
+     * Deletes entries older than {@code cutoff}, except the newest entry of each user, which keeps the
+     * user's sequence going and tells readers how far the log was truncated.
+     *
+     * @return the number of entries deleted
+     */
+    public int prune(Instant cutoff) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    DELETE FROM change_log c
+                    WHERE c.changed_at < ?
+                      AND c.seq < (SELECT max(m.seq) FROM change_log m WHERE m.user_id = c.user_id)""")) {
+                statement.setTimestamp(1, Timestamp.from(cutoff));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    public long deleteByUserId(Long userId) {
+        return delete("id.userId", userId);
+    }
+
+    public record NewChange(long userId, ChangeType type, long entityId, ChangeOperation operation) {
+    }
+}
@@ -4,8 +4,88 @@ import fr.ecodeli.entity.DocumentAccess;
 import fr.ecodeli.entity.DocumentAccessId;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.Session;
 
 @ApplicationScoped
 public class DocumentAccessRepository implements PanacheRepositoryBase<DocumentAccess, DocumentAccessId> {
-}
 
+    public long countManageable(Collection<Long> documentIds, Long userId) {
+        return count("id.userId = ?1 and canManage = true and id.documentId in ?2", userId, documentIds);
+    }
+
+    /**
+     * Inserts an access row for every existing document/user pair in one set-based statement, skipping
+     * pairs that already have one. The rows never grant management of the document.
+     *
+     * @return the ids of the rows inserted
+     */
+    public List<DocumentAccessId> insertAll(Collection<Long> documentIds, Collection<Long> userIds,
+                                            boolean canRead) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    INSERT INTO document_access (document_id, user_id, can_read, can_manage)
+                    SELECT d.id, u.id, ?, false
+                    FROM document d
+                    JOIN app_user u ON u.id = ANY (?)
+                    WHERE d.id = ANY (?)
+                    ON CONFLICT DO NOTHING
+                    RETURNING document_id, user_id""")) {
+                statement.setBoolean(1, canRead);
+                statement.setArray(2, connection.createArrayOf("bigint", userIds.toArray()));
+                statement.setArray(3, connection.createArrayOf("bigint", documentIds.toArray()));
+                return readIds(statement);
+            }
+        });
+    }
+
+    /**
+     * Deletes the access rows of every document/user pair, except the rows of the documents' managers.
+     *
+     * @return the ids of the rows deleted
+     */
+    public List<DocumentAccessId> deleteAll(Collection<Long> documentIds, Collection<Long> userIds) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    DELETE FROM document_access
+                    WHERE document_id = ANY (?) AND user_id = ANY (?) AND NOT can_manage
+                    RETURNING document_id, user_id""")) {
+                statement.setArray(1, connection.createArrayOf("bigint", documentIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("bigint", userIds.toArray()));
+                return readIds(statement);
+            }
+        });
+    }
+
+    public Optional<DocumentAccess> findWithDocument(Long documentId, Long userId) {
+        return find("from DocumentAccess a join fetch a.document where a.id.documentId = ?1 and a.id.userId = ?2",
+                documentId, userId).firstResultOptional();
+    }
+
+    public List<DocumentAccess> listReadableWithDocument(Long userId, Collection<Long> documentIds) {
+        return find("from DocumentAccess a join fetch a.document"
+                + " where a.id.userId = ?1 and a.canRead = true and a.id.documentId in ?2", userId, documentIds).list();
+    }
+
+    public List<Long> listUserIdsByDocumentId(Long documentId) {
+        return getEntityManager()
+                .createQuery("select a.id.userId from DocumentAccess a where a.id.documentId = :documentId", Long.class)
+                .setParameter("documentId", documentId)
+                .getResultList();
+    }
+
+    private static List<DocumentAccessId> readIds(PreparedStatement statement) throws SQLException {
+        var ids = new ArrayList<DocumentAccessId>();
+        try (var result = statement.executeQuery()) {
+            while (result.next()) {
+                ids.add(new DocumentAccessId(result.getLong(1), result.getLong(2)));
+            }
+        }
+        return ids;
+    }
+}
@@ -1,10 +1,76 @@
 package fr.ecodeli.repository;
 
 import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.DocumentType;
+import fr.ecodeli.entity.PreviewStatus;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.hibernate.Session;
 
 @ApplicationScoped
 public class DocumentRepository implements PanacheRepository<Document> {
+
+    public List<Document> listAfter(long afterId, int limit) {
+        return find("id > ?1", Sort.by("id"), afterId).range(0, limit - 1).list();
+    }
+
+    public List<Long> listIdsByPreviewStatus(PreviewStatus status, long afterId, int limit) {
+        return getEntityManager()
+                .createQuery("select d.id from Document d where d.previewStatus = :status and d.id > :afterId"
+                        + " order by d.id", Long.class)
+                .setParameter("status", status)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Lists the documents a user can read, optionally filtered by type and creation range, in id order.
+     */
+    public List<Document> listReadable(Long userId, DocumentType type, OffsetDateTime from, OffsetDateTime to,
+                                       int limit) {
+        var query = new StringBuilder("""
+                exists (select 1 from DocumentAccess a
+                        where a.document = d and a.id.userId = :userId and a.canRead = true)""");
+        var parameters = Parameters.with("userId", userId);
+        if (type != null) {
+            query.append(" and d.type = :type");
+            parameters.and("type", type);
+        }
+        if (from != null) {
+            query.append(" and d.createdAt >= :from");
+            parameters.and("from", from);
+        }
+        if (to != null) {
+            query.append(" and d.createdAt < :to");
+            parameters.and("to", to);
+        }
+        return find("from Document d where " + query, Sort.by("id"), parameters).range(0, limit - 1).list();
+    }
+
+    public boolean existsById(Long id) {
+        return count("id", id) > 0;
+    }
+
+    public long countByStorageKey(String storageKey) {
+        return count("storageKey", storageKey);
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock on a storage key, so checking whether a shared blob is still
+     * referenced and writing or deleting it cannot interleave with another transaction doing the same.
+     */
+    public void lockStorageKey(String storageKey) {
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (var statement = connection.prepareStatement("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))")) {
+                statement.setString(1, storageKey);
+                statement.execute();
+            }
+        });
+    }
 }
 
@@ -0,0 +1,15 @@
+package fr.ecodeli.repository;
+
+final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * @return a {@code like} pattern matching values starting with {@code prefix}, to be used with
+     * {@code escape '!'}
+     */
+    static String startsWith(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+}
@@ -3,9 +3,30 @@ package fr.ecodeli.repository;
 import fr.ecodeli.entity.UserAddress;
 import fr.ecodeli.entity.UserAddressId;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.List;
 
 @ApplicationScoped
 public class UserAddressRepository implements PanacheRepositoryBase<UserAddress, UserAddressId> {
-}
 
+    public List<UserAddress> listWithAddressByUserId(Long userId, long afterAddressId, int limit) {
+        return find("from UserAddress ua join fetch ua.address where ua.user.id = ?1 and ua.id.addressId > ?2",
+                Sort.by("ua.id.addressId"), userId, afterAddressId)
+                .range(0, limit - 1)
+                .list();
+    }
+
+    public List<UserAddress> listWithAddress(Long userId, Collection<Long> addressIds) {
+        return find("from UserAddress ua join fetch ua.address where ua.user.id = ?1 and ua.id.addressId in ?2",
+                userId, addressIds).list();
+    }
+
+    public List<Long> listUserIdsByAddressId(Long addressId) {
+        return getEntityManager()
+                .createQuery("select ua.id.userId from UserAddress ua where ua.id.addressId = :addressId", Long.class)
+                .setParameter("addressId", addressId)
+                .getResultList();
+    }
+}
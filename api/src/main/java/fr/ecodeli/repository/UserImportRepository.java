@@ -0,0 +1,206 @@
+package fr.ecodeli.repository;
+
+import fr.ecodeli.entity.AppUserStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.Session;
+
+/**
+ * Set-based JDBC writes for bulk imports, bypassing the persistence context: ids are preallocated from the
+ * entity sequences and rows are sent in JDBC batches.
+ */
+@ApplicationScoped
+public class UserImportRepository {
+
+    private final EntityManager entityManager;
+    private final Map<String, Long> sequenceIncrements = new ConcurrentHashMap<>();
+
+    @Inject
+    public UserImportRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns the Keycloak ids and emails, among the given ones, that already belong to a user.
+     */
+    public Set<String> findExistingKeys(Collection<String> keycloakUserIds, Collection<String> emails) {
+        return session().doReturningWork(connection -> {
+            try (var statement = connection.prepareStatement("""
+                    SELECT keycloak_user_id, email FROM app_user
+                    WHERE keycloak_user_id = ANY (?) OR email = ANY (?)""")) {
+                statement.setArray(1, connection.createArrayOf("varchar", keycloakUserIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("varchar", emails.toArray()));
+                var existing = new HashSet<String>();
+                try (var result = statement.executeQuery()) {
+                    while (result.next()) {
+                        existing.add(result.getString(1));
+                        existing.add(result.getString(2));
+                    }
+                }
+                return existing;
+            }
+        });
+    }
+
+    /**
+     * Reserves {@code count} ids from a Hibernate pooled sequence. Each {@code nextval} reserves the block
+     * of {@code increment} ids ending at the returned value, the same way Hibernate's pooled optimizer
+     * does, so the ids never collide with those handed out by the persistence context.
+     */
+    public long[] allocateIds(String sequence, int count) {
+        return session().doReturningWork(connection -> {
+            var increment = sequenceIncrements.computeIfAbsent(sequence, name -> incrementOf(connection, name));
+            var ids = new long[count];
+            var filled = 0;
+            try (var statement = connection.prepareStatement(
+                    "SELECT nextval(?::regclass) FROM generate_series(1, ?)")) {
+                while (filled < count) {
+                    statement.setString(1, sequence);
+                    statement.setLong(2, (count - filled + increment - 1) / increment);
+                    try (var result = statement.executeQuery()) {
+                        while (filled < count && result.next()) {
+                            var high = result.getLong(1);
+                            for (var id = Math.max(1, high - increment + 1); id <= high && filled < count; id++) {
+                                ids[filled++] = id;
+                            }
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    public void insert(List<NewUser> users, List<NewProfile> profiles, List<NewAddress> addresses) {
+        session().doWork(connection -> {
+            insertUsers(connection, users);
+            insertProfiles(connection, profiles);
+            insertAddresses(connection, addresses);
+        });
+    }
+
+    private void insertUsers(Connection connection, List<NewUser> users) throws SQLException {
+        try (var statement = connection.prepareStatement("""
+                INSERT INTO app_user (id, keycloak_user_id, email, phone, status, created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, ?, now(), now(), 0)""")) {
+            for (var user : users) {
+                statement.setLong(1, user.id());
+                statement.setString(2, user.keycloakUserId());
+                statement.setString(3, user.email());
+                setNullable(statement, 4, user.phone());
+                statement.setString(5, user.status().name());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertProfiles(Connection connection, List<NewProfile> profiles) throws SQLException {
+        if (profiles.isEmpty()) {
+            return;
+        }
+        try (var statement = connection.prepareStatement("""
+                INSERT INTO user_profile (user_id, first_name, last_name, birth_date, default_language, version)
+                VALUES (?, ?, ?, ?, ?, 0)""")) {
+            for (var profile : profiles) {
+                statement.setLong(1, profile.userId());
+                setNullable(statement, 2, profile.firstName());
+                setNullable(statement, 3, profile.lastName());
+                if (profile.birthDate() == null) {
+                    statement.setNull(4, Types.DATE);
+                } else {
+                    statement.setDate(4, Date.valueOf(profile.birthDate()));
+                }
+                setNullable(statement, 5, profile.defaultLanguage());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertAddresses(Connection connection, List<NewAddress> addresses) throws SQLException {
+        if (addresses.isEmpty()) {
+            return;
+        }
+        try (var addressStatement = connection.prepareStatement("""
+                INSERT INTO address (id, label, line1, line2, postal_code, city, country_code, latitude, longitude,
+                                     version)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)""");
+             var linkStatement = connection.prepareStatement("""
+                     INSERT INTO user_address (user_id, address_id, is_default)
+                     VALUES (?, ?, ?)""")) {
+            for (var address : addresses) {
+                addressStatement.setLong(1, address.id());
+                setNullable(addressStatement, 2, address.label());
+                addressStatement.setString(3, address.line1());
+                setNullable(addressStatement, 4, address.line2());
+                addressStatement.setString(5, address.postalCode());
+                addressStatement.setString(6, address.city());
+                addressStatement.setString(7, address.countryCode());
+                addressStatement.setBigDecimal(8, address.latitude());
+                addressStatement.setBigDecimal(9, address.longitude());
+                addressStatement.addBatch();
+
+                linkStatement.setLong(1, address.userId());
+                linkStatement.setLong(2, address.id());
+                linkStatement.setBoolean(3, address.isDefault());
+                linkStatement.addBatch();
+            }
+            addressStatement.executeBatch();
+            linkStatement.executeBatch();
+        }
+    }
+
+    private static long incrementOf(Connection connection, String sequence) {
+        try (var statement = connection.prepareStatement(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?")) {
+            statement.setString(1, sequence);
+            try (var result = statement.executeQuery()) {
+                if (!result.next()) {
+                    throw new IllegalStateException("Unknown sequence " + sequence);
+                }
+                return result.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read sequence " + sequence, e);
+        }
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+
+    public record NewUser(long id, String keycloakUserId, String email, String phone, AppUserStatus status) {
+    }
+
+    public record NewProfile(long userId, String firstName, String lastName, LocalDate birthDate,
+                             String defaultLanguage) {
+    }
+
+    public record NewAddress(long id, long userId, String label, String line1, String line2, String postalCode,
+                             String city, String countryCode, BigDecimal latitude, BigDecimal longitude,
+                             boolean isDefault) {
+    }
+}
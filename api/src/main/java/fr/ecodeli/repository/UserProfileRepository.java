@@ -2,9 +2,27 @@ package fr.ecodeli.repository;
 
 import fr.ecodeli.entity.UserProfile;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
 
 @ApplicationScoped
 public class UserProfileRepository implements PanacheRepository<UserProfile> {
+
+    public List<UserProfile> listPage(String lastNamePrefix, long afterUserId, int limit) {
+        var conditions = new ArrayList<String>();
+        var parameters = new Parameters();
+        if (lastNamePrefix != null && !lastNamePrefix.isBlank()) {
+            conditions.add("lower(lastName) like :lastNamePrefix escape '!'");
+            parameters.and("lastNamePrefix", LikePatterns.startsWith(lastNamePrefix.toLowerCase()));
+        }
+        if (afterUserId > 0) {
+            conditions.add("userId > :afterUserId");
+            parameters.and("afterUserId", afterUserId);
+        }
+        return find(String.join(" and ", conditions), Sort.by("userId"), parameters).range(0, limit - 1).list();
+    }
 }
 
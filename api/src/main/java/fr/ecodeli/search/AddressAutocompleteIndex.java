@@ -0,0 +1,174 @@
+package fr.ecodeli.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Accent- and case-insensitive prefix index over the postal codes and cities of all addresses. Each field
+ * has a sorted map from normalized term to the distinct values carrying it, so a prefix lookup is a range
+ * scan that stops after {@code limit} values. Street lines identify a home, so they are not indexed: they
+ * are only matched, with {@link #suggestLines}, over the addresses of the user asking.
+ * <p>
+ * Lookups never lock; writes are serialized so an update replaces the previous terms of an address
+ * atomically with respect to other writes.
+ */
+@ApplicationScoped
+public class AddressAutocompleteIndex implements AddressIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final char TERM_END = '\u0000';
+
+    private final Map<AddressField, ConcurrentSkipListMap<String, Entry>> terms = new EnumMap<>(AddressField.class);
+    private final Map<Long, AddressSnapshot> indexed = new HashMap<>();
+    private final LoadTombstones tombstones = new LoadTombstones();
+
+    public AddressAutocompleteIndex() {
+        terms.put(AddressField.POSTAL_CODE, new ConcurrentSkipListMap<>());
+        terms.put(AddressField.CITY, new ConcurrentSkipListMap<>());
+    }
+
+    @Override
+    public synchronized void load(AddressSnapshot address) {
+        if (!tombstones.contains(address.id()) && !indexed.containsKey(address.id())) {
+            add(address);
+        }
+    }
+
+    @Override
+    public synchronized void put(AddressSnapshot address) {
+        tombstones.record(address.id());
+        var previous = indexed.get(address.id());
+        if (previous != null) {
+            removeTerms(previous);
+        }
+        add(address);
+    }
+
+    @Override
+    public synchronized void remove(long addressId) {
+        tombstones.record(addressId);
+        var previous = indexed.remove(addressId);
+        if (previous != null) {
+            removeTerms(previous);
+        }
+    }
+
+    @Override
+    public synchronized void loadFinished() {
+        tombstones.clear();
+    }
+
+    /**
+     * @return up to {@code limit} distinct postal codes or cities starting with {@code prefix}, in term order
+     */
+    public List<Suggestion> suggest(AddressField field, String prefix, int limit) {
+        var fieldTerms = terms.get(field);
+        if (fieldTerms == null) {
+            throw new IllegalArgumentException("Field is not indexed: " + field);
+        }
+        return suggest(fieldTerms, prefix, limit);
+    }
+
+    /**
+     * Matches street lines from the start of every word, so "hugo" finds "12 rue Victor Hugo".
+     *
+     * @return up to {@code limit} distinct lines with a word starting with {@code prefix}, in term order
+     */
+    public static List<Suggestion> suggestLines(Collection<String> lines, String prefix, int limit) {
+        var lineTerms = new TreeMap<String, Entry>();
+        for (var line : lines) {
+            forEachLineTerm(line, (field, key, display) -> lineTerms.merge(key, new Entry(display, 1),
+                    (current, added) -> new Entry(current.display(), current.count() + 1)));
+        }
+        return suggest(lineTerms, prefix, limit);
+    }
+
+    private static List<Suggestion> suggest(NavigableMap<String, Entry> fieldTerms, String prefix, int limit) {
+        var normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        var range = fieldTerms.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+        var suggestions = new LinkedHashMap<String, Suggestion>();
+        for (var entry : range.entrySet()) {
+            var key = entry.getKey();
+            var value = key.substring(key.indexOf(TERM_END) + 1);
+            var current = entry.getValue();
+            suggestions.putIfAbsent(value, new Suggestion(current.display(), current.count()));
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(suggestions.values());
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        var unaccented = MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(unaccented).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+    }
+
+    private void add(AddressSnapshot address) {
+        indexed.put(address.id(), address);
+        forEachTerm(address, (field, key, display) -> terms.get(field).compute(key,
+                (ignored, entry) -> entry == null ? new Entry(display, 1) : new Entry(display, entry.count() + 1)));
+    }
+
+    private void removeTerms(AddressSnapshot address) {
+        forEachTerm(address, (field, key, display) -> terms.get(field).computeIfPresent(key,
+                (ignored, entry) -> entry.count() <= 1 ? null : new Entry(entry.display(), entry.count() - 1)));
+    }
+
+    private static void forEachTerm(AddressSnapshot address, TermConsumer consumer) {
+        whole(AddressField.POSTAL_CODE, address.postalCode(), consumer);
+        whole(AddressField.CITY, address.city(), consumer);
+    }
+
+    private static void forEachLineTerm(String line1, TermConsumer consumer) {
+        var line = normalize(line1);
+        if (line.isEmpty()) {
+            return;
+        }
+        var display = line1.strip();
+        var start = 0;
+        while (true) {
+            consumer.accept(AddressField.LINE1, line.substring(start) + TERM_END + line, display);
+            var space = line.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+    }
+
+    private static void whole(AddressField field, String value, TermConsumer consumer) {
+        var normalized = normalize(value);
+        if (!normalized.isEmpty()) {
+            consumer.accept(field, normalized + TERM_END + normalized, value.strip());
+        }
+    }
+
+    @FunctionalInterface
+    private interface TermConsumer {
+        void accept(AddressField field, String key, String display);
+    }
+
+    private record Entry(String display, int count) {
+    }
+}
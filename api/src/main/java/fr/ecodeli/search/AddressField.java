@@ -0,0 +1,10 @@
+package fr.ecodeli.search;
+
+/**
+ * The address fields offered for autocompletion.
+ */
+public enum AddressField {
+    POSTAL_CODE,
+    CITY,
+    LINE1
+}
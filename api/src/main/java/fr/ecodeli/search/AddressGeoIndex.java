@@ -0,0 +1,279 @@
+package fr.ecodeli.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Uniform grid over address coordinates. Points live in parallel primitive arrays; each grid cell of
+ * {@value #CELL_DEGREES} degrees lists the slots of the points it contains, so a query only measures the
+ * points of the cells its search area overlaps. The grid does not wrap around the antimeridian.
+ */
+@ApplicationScoped
+public class AddressGeoIndex implements AddressIndex {
+
+    static final double CELL_DEGREES = 0.01;
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+    private static final int ROWS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.ceil(360 / CELL_DEGREES);
+    private static final Comparator<GeoHit> BY_DISTANCE = Comparator.comparingDouble(GeoHit::distanceMeters);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final LoadTombstones tombstones = new LoadTombstones();
+    private long[] ids = new long[1024];
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private int size;
+
+    @Override
+    public void load(AddressSnapshot address) {
+        if (!address.hasCoordinates()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!tombstones.contains(address.id()) && !slotsById.containsKey(address.id())) {
+                add(address.id(), address.latitude(), address.longitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(AddressSnapshot address) {
+        lock.writeLock().lock();
+        try {
+            tombstones.record(address.id());
+            removeSlot(address.id());
+            if (address.hasCoordinates()) {
+                add(address.id(), address.latitude(), address.longitude());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long addressId) {
+        lock.writeLock().lock();
+        try {
+            tombstones.record(addressId);
+            removeSlot(addressId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadFinished() {
+        lock.writeLock().lock();
+        try {
+            tombstones.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the addresses within {@code radiusMeters}, nearest first, at most {@code limit} of them
+     */
+    public List<GeoHit> withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        var latitudeDelta = radiusMeters / METERS_PER_DEGREE;
+        var poleward = Math.min(Math.abs(latitude) + latitudeDelta, 89.9);
+        var longitudeDelta = latitudeDelta / Math.cos(Math.toRadians(poleward));
+        var minRow = row(latitude - latitudeDelta);
+        var maxRow = row(latitude + latitudeDelta);
+        var minColumn = column(longitude - longitudeDelta);
+        var maxColumn = column(longitude + longitudeDelta);
+        var hits = new ArrayList<GeoHit>();
+        lock.readLock().lock();
+        try {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    var cell = cells.get(cellKey(row, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.size; i++) {
+                        var slot = cell.slots[i];
+                        var distance = distanceMeters(latitude, longitude, latitudes[slot], longitudes[slot]);
+                        if (distance <= radiusMeters) {
+                            hits.add(new GeoHit(ids[slot], latitudes[slot], longitudes[slot], distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(BY_DISTANCE);
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Finds the {@code k} nearest addresses within {@code maxMeters}, scanning rings of cells outwards from
+     * the query point and stopping once no unvisited cell can hold a closer point.
+     */
+    public List<GeoHit> nearest(double latitude, double longitude, int k, double maxMeters) {
+        var cellHeight = CELL_DEGREES * METERS_PER_DEGREE;
+        var poleward = Math.min(Math.abs(latitude) + maxMeters / METERS_PER_DEGREE, 89.9);
+        var cellSide = Math.min(cellHeight, cellHeight * Math.cos(Math.toRadians(poleward)));
+        var maxRing = (int) Math.ceil(maxMeters / cellSide) + 1;
+        var centerRow = row(latitude);
+        var centerColumn = column(longitude);
+        var farthestFirst = new PriorityQueue<>(BY_DISTANCE.reversed());
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ring <= maxRing; ring++) {
+                if (farthestFirst.size() == k && (ring - 1) * cellSide > farthestFirst.peek().distanceMeters()) {
+                    break;
+                }
+                for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                    var edgeRow = row == centerRow - ring || row == centerRow + ring;
+                    var step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int column = centerColumn - ring; column <= centerColumn + ring; column += step) {
+                        var cell = row < 0 || row >= ROWS || column < 0 || column >= COLUMNS
+                                ? null
+                                : cells.get(cellKey(row, column));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (int i = 0; i < cell.size; i++) {
+                            var slot = cell.slots[i];
+                            var distance = distanceMeters(latitude, longitude, latitudes[slot], longitudes[slot]);
+                            if (distance > maxMeters) {
+                                continue;
+                            }
+                            if (farthestFirst.size() < k) {
+                                farthestFirst.add(new GeoHit(ids[slot], latitudes[slot], longitudes[slot], distance));
+                            } else if (distance < farthestFirst.peek().distanceMeters()) {
+                                farthestFirst.poll();
+                                farthestFirst.add(new GeoHit(ids[slot], latitudes[slot], longitudes[slot], distance));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        var hits = new ArrayList<>(farthestFirst);
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        var deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        var deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        var a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void add(long id, double latitude, double longitude) {
+        if (size == ids.length) {
+            var capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+        }
+        var slot = size++;
+        ids[slot] = id;
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        slotsById.put(id, slot);
+        cells.computeIfAbsent(cellKey(latitude, longitude), key -> new Cell()).add(slot);
+    }
+
+    /**
+     * Removes a point by moving the last point into its slot, keeping the arrays dense.
+     */
+    private void removeSlot(long id) {
+        var slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        var cellKey = cellKey(latitudes[slot], longitudes[slot]);
+        var cell = cells.get(cellKey);
+        cell.remove(slot);
+        if (cell.size == 0) {
+            cells.remove(cellKey);
+        }
+        var last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            latitudes[slot] = latitudes[last];
+            longitudes[slot] = longitudes[last];
+            slotsById.put(ids[slot], slot);
+            cells.get(cellKey(latitudes[slot], longitudes[slot])).replace(last, slot);
+        }
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey(row(latitude), column(longitude));
+    }
+
+    private static long cellKey(int row, int column) {
+        return (long) row * COLUMNS + column;
+    }
+
+    private static int row(double latitude) {
+        return Math.clamp((int) Math.floor((latitude + 90) / CELL_DEGREES), 0, ROWS - 1);
+    }
+
+    private static int column(double longitude) {
+        return Math.clamp((int) Math.floor((longitude + 180) / CELL_DEGREES), 0, COLUMNS - 1);
+    }
+
+    private static final class Cell {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        private void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+
+        private void replace(int oldSlot, int newSlot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == oldSlot) {
+                    slots[i] = newSlot;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package fr.ecodeli.search;
+
+/**
+ * An in-memory index over addresses, loaded at startup and kept up to date from address changes. Change
+ * events can arrive while the load is running, so until {@link #loadFinished()} an index remembers the ids it
+ * saw through {@link #put} and {@link #remove}, and the load leaves them alone.
+ */
+public interface AddressIndex {
+
+    /**
+     * Adds an address from the startup load, unless a change event already updated or removed it: the loaded
+     * row may predate that change, and a removed address must not come back.
+     */
+    void load(AddressSnapshot address);
+
+    void put(AddressSnapshot address);
+
+    void remove(long addressId);
+
+    /**
+     * Called once the startup load has finished, whether or not it succeeded, to forget the changed ids.
+     */
+    void loadFinished();
+}
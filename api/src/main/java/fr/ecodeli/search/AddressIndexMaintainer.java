@@ -0,0 +1,85 @@
+package fr.ecodeli.search;
+
+import fr.ecodeli.repository.AddressRepository;
+import fr.ecodeli.service.AddressChangedEvent;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * Fills every {@link AddressIndex} from the database on a background thread at startup, and applies address
+ * changes to them once their transaction has committed. Changes observed while the load is running, deletions
+ * included, win over the loaded rows: each index remembers the ids it saw change until the load has finished,
+ * so a page read before a change committed cannot bring back the older state, and the indexes converge on
+ * the committed state.
+ */
+@ApplicationScoped
+public class AddressIndexMaintainer {
+
+    private static final Logger LOG = Logger.getLogger(AddressIndexMaintainer.class);
+    private static final int PAGE_SIZE = 1000;
+
+    private final AddressRepository addressRepository;
+    private final Instance<AddressIndex> indexes;
+    private volatile boolean loaded;
+
+    @Inject
+    public AddressIndexMaintainer(AddressRepository addressRepository, @Any Instance<AddressIndex> indexes) {
+        this.addressRepository = addressRepository;
+        this.indexes = indexes;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Thread.ofPlatform().daemon().name("address-index-loader").start(this::load);
+    }
+
+    void onChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) AddressChangedEvent event) {
+        for (var index : indexes) {
+            if (event.current() == null) {
+                index.remove(event.addressId());
+            } else {
+                index.put(event.current());
+            }
+        }
+    }
+
+    void load() {
+        var started = System.nanoTime();
+        long afterId = 0;
+        long count = 0;
+        try {
+            while (true) {
+                var cursor = afterId;
+                var page = QuarkusTransaction.requiringNew().call(() ->
+                        addressRepository.listAfter(cursor, PAGE_SIZE).stream().map(AddressSnapshot::of).toList());
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (var index : indexes) {
+                    page.forEach(index::load);
+                }
+                count += page.size();
+                afterId = page.get(page.size() - 1).id();
+            }
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Failed to load the address indexes after %d addresses", count);
+            return;
+        } finally {
+            for (var index : indexes) {
+                index.loadFinished();
+            }
+        }
+        loaded = true;
+        LOG.infof("Indexed %d addresses in %d ms", count, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,21 @@
+package fr.ecodeli.search;
+
+import fr.ecodeli.entity.Address;
+
+/**
+ * The searchable fields of an address, detached from the persistence context.
+ */
+public record AddressSnapshot(long id, String line1, String postalCode, String city, String countryCode,
+                              Double latitude, Double longitude) {
+
+    public static AddressSnapshot of(Address address) {
+        return new AddressSnapshot(address.getId(), address.getLine1(), address.getPostalCode(), address.getCity(),
+                address.getCountryCode(),
+                address.getLatitude() == null ? null : address.getLatitude().doubleValue(),
+                address.getLongitude() == null ? null : address.getLongitude().doubleValue());
+    }
+
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,4 @@
+package fr.ecodeli.search;
+
+public record GeoHit(long addressId, double latitude, double longitude, double distanceMeters) {
+}
@@ -0,0 +1,28 @@
+package fr.ecodeli.search;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ids of the addresses an index saw change or disappear while the startup load was running, so the load does
+ * not bring back an older state of them, deleted addresses included. Dropped once the load has finished. Not
+ * thread-safe: each index uses it under its own lock.
+ */
+final class LoadTombstones {
+
+    private Set<Long> ids = new HashSet<>();
+
+    void record(long addressId) {
+        if (ids != null) {
+            ids.add(addressId);
+        }
+    }
+
+    boolean contains(long addressId) {
+        return ids != null && ids.contains(addressId);
+    }
+
+    void clear() {
+        ids = null;
+    }
+}
@@ -0,0 +1,7 @@
+package fr.ecodeli.search;
+
+/**
+ * A distinct field value matching an autocomplete prefix, with the number of addresses that have it.
+ */
+public record Suggestion(String value, int count) {
+}
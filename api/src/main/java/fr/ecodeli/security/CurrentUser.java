@@ -0,0 +1,22 @@
+package fr.ecodeli.security;
+
+import fr.ecodeli.service.ProvisionedUser;
+import jakarta.enterprise.context.RequestScoped;
+import java.util.Optional;
+
+/**
+ * The application user behind the current request, resolved once by {@link FirstLoginFilter}.
+ */
+@RequestScoped
+public class CurrentUser {
+
+    private ProvisionedUser user;
+
+    void set(ProvisionedUser user) {
+        this.user = user;
+    }
+
+    public Optional<ProvisionedUser> get() {
+        return Optional.ofNullable(user);
+    }
+}
@@ -16,16 +16,18 @@ public class FirstLoginFilter implements ContainerRequestFilter {
 
     private final SecurityIdentity identity;
     private final FirstLoginHandler handler;
+    private final CurrentUser currentUser;
 
     @Inject
-    public FirstLoginFilter(SecurityIdentity identity, FirstLoginHandler handler) {
+    public FirstLoginFilter(SecurityIdentity identity, FirstLoginHandler handler, CurrentUser currentUser) {
         this.identity = identity;
         this.handler = handler;
+        this.currentUser = currentUser;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) {
-        handler.ensureUserExists(identity);
+        currentUser.set(handler.ensureUserExists(identity));
     }
 }
 
@@ -1,15 +1,19 @@
 package fr.ecodeli.security;
 
+import fr.ecodeli.concurrency.DatabaseLimiter;
 import fr.ecodeli.entity.AppUser;
 import fr.ecodeli.entity.AppUserStatus;
 import fr.ecodeli.entity.UserProfile;
 import fr.ecodeli.service.AppUserService;
+import fr.ecodeli.service.ProvisionedUser;
 import fr.ecodeli.service.UserProfileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.oidc.runtime.OidcJwtCallerPrincipal;
 import io.quarkus.security.identity.SecurityIdentity;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import org.jboss.logging.Logger;
 
 import java.util.Locale;
@@ -21,25 +25,61 @@ public class FirstLoginHandler {
 
     private final AppUserService appUserService;
     private final UserProfileService userProfileService;
+    private final DatabaseLimiter limiter;
+    private final Counter createdUsers;
+    private final Counter existingUsers;
+    private final Counter rejectedUsers;
 
     @Inject
-    public FirstLoginHandler(AppUserService appUserService, UserProfileService userProfileService) {
+    public FirstLoginHandler(AppUserService appUserService,
+                             UserProfileService userProfileService,
+                             DatabaseLimiter limiter,
+                             MeterRegistry registry) {
         this.appUserService = appUserService;
         this.userProfileService = userProfileService;
+        this.limiter = limiter;
+        this.createdUsers = provisioningCounter(registry, "created");
+        this.existingUsers = provisioningCounter(registry, "existing");
+        this.rejectedUsers = provisioningCounter(registry, "rejected");
     }
 
-    @Transactional
-    public void ensureUserExists(SecurityIdentity identity) {
+    /**
+     * Resolves the application user of the identity, provisioning it on first login. Known subjects are
+     * answered from the identity cache; the database is only queried, in its own transaction and holding a
+     * {@link DatabaseLimiter} permit, on a miss. This runs in a request filter, before the permit of the
+     * resource method is taken.
+     * Concurrent misses for one subject wait on the same cache computation, and the insert itself tolerates
+     * a row created concurrently by another node.
+     *
+     * @return the provisioned user, or {@code null} for anonymous identities and unusable tokens
+     */
+    public ProvisionedUser ensureUserExists(SecurityIdentity identity) {
         if (identity == null || identity.isAnonymous()) {
-            return;
+            return null;
         }
         var keycloakId = attribute(identity, "sub");
         if (keycloakId == null || keycloakId.isBlank()) {
             LOG.debug("Security identity missing subject; skipping first-login provisioning");
-            return;
+            return null;
         }
-        if (appUserService.findByKeycloakUserId(keycloakId).isPresent()) {
-            return;
+        return appUserService.findProvisioned(keycloakId, subject -> provisionWithPermit(identity, subject));
+    }
+
+    private ProvisionedUser provisionWithPermit(SecurityIdentity identity, String keycloakId) {
+        try {
+            return limiter.call(() -> QuarkusTransaction.requiringNew().call(() -> provision(identity, keycloakId)));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to provision user " + keycloakId, e);
+        }
+    }
+
+    private ProvisionedUser provision(SecurityIdentity identity, String keycloakId) {
+        var existing = appUserService.findByKeycloakUserId(keycloakId);
+        if (existing.isPresent()) {
+            existingUsers.increment();
+            return ProvisionedUser.of(existing.get());
         }
         var email = attribute(identity, "email");
         if (email == null || email.isBlank()) {
@@ -47,7 +87,8 @@ public class FirstLoginHandler {
         }
         if (email == null || email.isBlank()) {
             LOG.warnf("Cannot provision user %s because no email claim is present", keycloakId);
-            return;
+            rejectedUsers.increment();
+            return null;
         }
         var phone = attribute(identity, "phone_number");
         var status = parseStatus(attribute(identity, "account_status"));
@@ -58,9 +99,21 @@ public class FirstLoginHandler {
                 .phone(phone)
                 .status(status)
                 .build();
-        var created = appUserService.create(user);
-        createProfileIfNeeded(created, attribute(identity, "given_name"), attribute(identity, "family_name"));
-        LOG.infof("Provisioned AppUser %s (%s) from Keycloak token", user.getEmail(), keycloakId);
+        var result = appUserService.createIfAbsent(user);
+        if (result == null) {
+            LOG.warnf("Cannot provision user %s because email %s belongs to another account", keycloakId,
+                    user.getEmail());
+            rejectedUsers.increment();
+            return null;
+        }
+        if (result.created()) {
+            createdUsers.increment();
+            createProfileIfNeeded(result.user(), attribute(identity, "given_name"), attribute(identity, "family_name"));
+            LOG.infof("Provisioned AppUser %s (%s) from Keycloak token", user.getEmail(), keycloakId);
+        } else {
+            existingUsers.increment();
+        }
+        return ProvisionedUser.of(result.user());
     }
 
     private void createProfileIfNeeded(AppUser user, String firstName, String lastName) {
@@ -86,7 +139,17 @@ public class FirstLoginHandler {
         }
     }
 
-    private String attribute(SecurityIdentity identity, String name) {
+    private static Counter provisioningCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("ecodeli.users.provisioning")
+                .description("First-login lookups that missed the identity cache, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Reads a token attribute from the identity, falling back to the raw JWT claim.
+     */
+    static String attribute(SecurityIdentity identity, String name) {
         var value = identity.<String>getAttribute(name);
         if (value != null && !value.isBlank()) {
             return value;
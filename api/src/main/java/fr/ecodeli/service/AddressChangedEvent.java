@@ -0,0 +1,9 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.search.AddressSnapshot;
+
+/**
+ * Fired when an address is created, updated or deleted; {@code current} is {@code null} after a deletion.
+ */
+public record AddressChangedEvent(long addressId, AddressSnapshot current) {
+}
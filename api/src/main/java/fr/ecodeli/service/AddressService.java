@@ -1,27 +1,46 @@
 package fr.ecodeli.service;
 
 import fr.ecodeli.entity.Address;
+import fr.ecodeli.entity.ChangeOperation;
 import fr.ecodeli.repository.AddressRepository;
+import fr.ecodeli.search.AddressSnapshot;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class AddressService {
 
     private final AddressRepository repository;
+    private final Event<AddressChangedEvent> addressChanged;
+    private final ChangeLogService changeLog;
 
     @Inject
-    public AddressService(AddressRepository repository) {
+    public AddressService(AddressRepository repository,
+                          Event<AddressChangedEvent> addressChanged,
+                          ChangeLogService changeLog) {
         this.repository = repository;
+        this.addressChanged = addressChanged;
+        this.changeLog = changeLog;
     }
 
-    public List<Address> listAll() {
-        return repository.listAll();
+    /**
+     * Lists addresses one keyset page at a time, ordered by id or by postal code.
+     */
+    public Page<Address> list(String postalCodePrefix, String city, String countryCode, boolean byPostalCode,
+                              String cursor, Integer size) {
+        var limit = Page.size(size);
+        var after = PageCursor.decode(cursor, byPostalCode);
+        var rows = repository.listPage(postalCodePrefix, city, countryCode, byPostalCode, after.key(), after.id(),
+                limit + 1);
+        return Page.of(rows, limit, byPostalCode
+                ? address -> PageCursor.of(address.getPostalCode(), address.getId())
+                : address -> PageCursor.of(address.getId()));
     }
 
     public Optional<Address> findById(Long id) {
@@ -31,12 +50,18 @@ public class AddressService {
     @Transactional
     public Address create(Address address) {
         repository.persist(address);
+        fireChanged(address);
         return address;
     }
 
+    /**
+     * Updates an address, provided its current version is one of {@code expectedVersions}, or
+     * unconditionally when that is {@code null}.
+     */
     @Transactional
-    public Address update(Long id, Address payload) {
+    public Address update(Long id, Address payload, Set<Long> expectedVersions) {
         var existing = repository.findByIdOptional(id).orElseThrow(NotFoundException::new);
+        OptimisticWrites.requireVersion(expectedVersions, existing.getVersion());
         existing.setLabel(payload.getLabel());
         existing.setLine1(payload.getLine1());
         existing.setLine2(payload.getLine2());
@@ -45,11 +70,24 @@ public class AddressService {
         existing.setCountryCode(payload.getCountryCode());
         existing.setLatitude(payload.getLatitude());
         existing.setLongitude(payload.getLongitude());
-        return repository.getEntityManager().merge(existing);
+        var merged = repository.getEntityManager().merge(existing);
+        OptimisticWrites.flush(repository.getEntityManager());
+        changeLog.recordForAddressOwners(id, ChangeOperation.UPSERT);
+        fireChanged(merged);
+        return merged;
     }
 
     @Transactional
     public boolean delete(Long id) {
-        return repository.deleteById(id);
+        changeLog.recordForAddressOwners(id, ChangeOperation.DELETE);
+        var deleted = repository.deleteById(id);
+        if (deleted) {
+            addressChanged.fire(new AddressChangedEvent(id, null));
+        }
+        return deleted;
+    }
+
+    private void fireChanged(Address address) {
+        addressChanged.fire(new AddressChangedEvent(address.getId(), AddressSnapshot.of(address)));
     }
 }
@@ -1,31 +1,59 @@
 package fr.ecodeli.service;
 
 import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.AppUserStatus;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
 import fr.ecodeli.repository.AppUserRepository;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @ApplicationScoped
 public class AppUserService {
 
     private final AppUserRepository repository;
+    private final Cache identityCache;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final ChangeLogService changeLog;
 
     @Inject
-    public AppUserService(AppUserRepository repository) {
+    public AppUserService(AppUserRepository repository,
+                          @CacheName("app-user-identity") Cache identityCache,
+                          TransactionSynchronizationRegistry transactionRegistry,
+                          ChangeLogService changeLog) {
         this.repository = repository;
+        this.identityCache = identityCache;
+        this.transactionRegistry = transactionRegistry;
+        this.changeLog = changeLog;
     }
 
-    public List<AppUser> listAll() {
-        return repository.listAll();
+    /**
+     * Lists users one keyset page at a time, ordered by id or by email.
+     */
+    public Page<AppUser> list(AppUserStatus status, String emailPrefix, boolean byEmail, String cursor, Integer size) {
+        var limit = Page.size(size);
+        var after = PageCursor.decode(cursor, byEmail);
+        var rows = repository.listPage(status, emailPrefix, byEmail, after.key(), after.id(), limit + 1);
+        return Page.of(rows, limit, byEmail
+                ? user -> PageCursor.of(user.getEmail(), user.getId())
+                : user -> PageCursor.of(user.getId()));
     }
 
     public Optional<AppUser> findById(Long id) {
         return repository.findByIdOptional(id);
     }
 
+    public Optional<AppUser> findWithDetails(Long id) {
+        return repository.findWithDetails(id);
+    }
+
     public Optional<AppUser> findByKeycloakUserId(String keycloakUserId) {
         return repository.findByKeycloakId(keycloakUserId);
     }
@@ -34,19 +62,69 @@ public class AppUserService {
         return repository.findByEmail(email);
     }
 
+    /**
+     * Returns the cached identity of a token subject, calling {@code loader} only on a miss. A {@code null}
+     * result is cached as well, so subjects that cannot be provisioned are not retried on every request.
+     */
+    public ProvisionedUser findProvisioned(String keycloakUserId, Function<String, ProvisionedUser> loader) {
+        return identityCache.get(keycloakUserId, loader).await().indefinitely();
+    }
+
     @Transactional
     public AppUser create(AppUser user) {
         repository.persist(user);
         return user;
     }
 
+    /**
+     * Creates the user unless another transaction, possibly on another node, already created one with the
+     * same Keycloak id or email, in which case that row is returned.
+     *
+     * @return the user, and whether this call created it
+     */
+    @Transactional
+    public ProvisioningResult createIfAbsent(AppUser user) {
+        var insertedId = repository.insertIfAbsent(user);
+        var existing = insertedId.flatMap(repository::findByIdOptional)
+                .or(() -> repository.findByKeycloakId(user.getKeycloakUserId()));
+        return existing.map(found -> new ProvisioningResult(found, insertedId.isPresent()))
+                .orElse(null);
+    }
+
     @Transactional
     public AppUser update(AppUser user) {
-        return repository.getEntityManager().merge(user);
+        var merged = repository.getEntityManager().merge(user);
+        changeLog.record(merged.getId(), ChangeType.USER, merged.getId(), ChangeOperation.UPSERT);
+        evictAfterCompletion(merged.getKeycloakUserId());
+        return merged;
     }
 
     @Transactional
     public boolean delete(Long id) {
-        return repository.deleteById(id);
+        var user = repository.findByIdOptional(id).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        changeLog.deleteLog(id);
+        repository.delete(user);
+        evictAfterCompletion(user.getKeycloakUserId());
+        return true;
+    }
+
+    private void evictAfterCompletion(String keycloakUserId) {
+        identityCache.invalidate(keycloakUserId).await().indefinitely();
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                identityCache.invalidate(keycloakUserId).await().indefinitely();
+            }
+        });
+    }
+
+    public record ProvisioningResult(AppUser user, boolean created) {
     }
 }
@@ -0,0 +1,133 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.config.SyncProperties;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
+import fr.ecodeli.entity.DocumentAccessId;
+import fr.ecodeli.repository.ChangeLogRepository;
+import fr.ecodeli.repository.ChangeLogRepository.NewChange;
+import fr.ecodeli.repository.DocumentAccessRepository;
+import fr.ecodeli.repository.UserAddressRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.jboss.logging.Logger;
+
+/**
+ * Records, in the writing transaction, which users see a change, for the delta sync of
+ * {@link SyncService}. Entries older than the retention are pruned in the background.
+ */
+@ApplicationScoped
+public class ChangeLogService {
+
+    private static final Logger LOG = Logger.getLogger(ChangeLogService.class);
+
+    private final ChangeLogRepository repository;
+    private final UserAddressRepository userAddressRepository;
+    private final DocumentAccessRepository documentAccessRepository;
+    private final Duration retention;
+    private final Duration pruneInterval;
+    private final ScheduledExecutorService pruner;
+
+    @Inject
+    public ChangeLogService(ChangeLogRepository repository,
+                            UserAddressRepository userAddressRepository,
+                            DocumentAccessRepository documentAccessRepository,
+                            SyncProperties config) {
+        this.repository = repository;
+        this.userAddressRepository = userAddressRepository;
+        this.documentAccessRepository = documentAccessRepository;
+        this.retention = config.retention();
+        this.pruneInterval = config.pruneInterval();
+        this.pruner = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("change-log-pruner").factory());
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        pruner.scheduleWithFixedDelay(this::prune, 0, pruneInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pruner.shutdownNow();
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(long userId, ChangeType type, long entityId, ChangeOperation operation) {
+        repository.append(List.of(new NewChange(userId, type, entityId, operation)));
+    }
+
+    /**
+     * Records the change of every entity for every user, e.g. after sharing documents with several users.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordAll(Collection<Long> userIds, ChangeType type, Collection<Long> entityIds,
+                          ChangeOperation operation) {
+        var changes = new ArrayList<NewChange>(userIds.size() * entityIds.size());
+        for (var userId : userIds) {
+            for (var entityId : entityIds) {
+                changes.add(new NewChange(userId, type, entityId, operation));
+            }
+        }
+        repository.append(changes);
+    }
+
+    /**
+     * Records a document change for the user of each access row, e.g. for the rows a bulk share created.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordForAccess(Collection<DocumentAccessId> accessIds, ChangeOperation operation) {
+        repository.append(accessIds.stream()
+                .map(id -> new NewChange(id.getUserId(), ChangeType.DOCUMENT, id.getDocumentId(), operation))
+                .toList());
+    }
+
+    /**
+     * Records an address change for every user linked to the address. Must run before the links of a
+     * deleted address are removed.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordForAddressOwners(long addressId, ChangeOperation operation) {
+        recordAll(userAddressRepository.listUserIdsByAddressId(addressId), ChangeType.ADDRESS, List.of(addressId),
+                operation);
+    }
+
+    /**
+     * Records a document change for every user with an access row. Must run before the rows of a deleted
+     * document are removed.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordForDocumentUsers(long documentId, ChangeOperation operation) {
+        recordAll(documentAccessRepository.listUserIdsByDocumentId(documentId), ChangeType.DOCUMENT,
+                List.of(documentId), operation);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteLog(long userId) {
+        repository.deleteByUserId(userId);
+    }
+
+    void prune() {
+        try {
+            var deleted = QuarkusTransaction.requiringNew()
+                    .call(() -> repository.prune(Instant.now().minus(retention)));
+            if (deleted > 0) {
+                LOG.infof("Pruned %d change log entries", deleted);
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to prune the change log");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.PreviewStatus;
+import fr.ecodeli.repository.DocumentRepository;
+import fr.ecodeli.storage.DocumentStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.awt.Color;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.jboss.logging.Logger;
+
+/**
+ * Generates JPEG previews of images and of the first page of PDFs on a bounded worker pool, once the
+ * transaction storing a document has committed. The {@code preview_status} column is the durable queue:
+ * documents still pending at startup, or that did not fit in the in-memory queue, are enqueued again.
+ */
+@ApplicationScoped
+public class DocumentPreviewService {
+
+    private static final Logger LOG = Logger.getLogger(DocumentPreviewService.class);
+    private static final int PAGE_SIZE = 500;
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final DocumentStore documentStore;
+    private final int maxDimension;
+    private final ThreadPoolExecutor executor;
+
+    @Inject
+    public DocumentPreviewService(DocumentRepository documentRepository,
+                                  DocumentService documentService,
+                                  DocumentStore documentStore,
+                                  DocumentStorageProperties config) {
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.documentStore = documentStore;
+        this.maxDimension = config.previewMaxDimension();
+        this.executor = new ThreadPoolExecutor(config.previewWorkers(), config.previewWorkers(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.previewQueueCapacity()),
+                Thread.ofPlatform().daemon().name("document-preview-", 0).factory());
+    }
+
+    void onStored(@Observes(during = TransactionPhase.AFTER_SUCCESS) DocumentStoredEvent event) {
+        if (!enqueue(event.documentId())) {
+            LOG.debugf("Preview queue full, document %d stays pending", event.documentId());
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Thread.ofPlatform().daemon().name("document-preview-recovery").start(this::enqueuePending);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enqueues every pending document, waiting for room in the queue rather than dropping work.
+     */
+    void enqueuePending() {
+        long afterId = 0;
+        long enqueued = 0;
+        try {
+            while (true) {
+                var cursor = afterId;
+                var page = QuarkusTransaction.requiringNew().call(() ->
+                        documentRepository.listIdsByPreviewStatus(PreviewStatus.PENDING, cursor, PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (var documentId : page) {
+                    while (!enqueue(documentId)) {
+                        if (executor.isShutdown()) {
+                            return;
+                        }
+                        Thread.sleep(200);
+                    }
+                    enqueued++;
+                }
+                afterId = page.get(page.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enqueued > 0) {
+            LOG.infof("Enqueued %d pending document previews", enqueued);
+        }
+    }
+
+    private boolean enqueue(Long documentId) {
+        try {
+            executor.execute(() -> generate(documentId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    void generate(Long documentId) {
+        var document = QuarkusTransaction.requiringNew().call(() -> documentRepository.findById(documentId));
+        if (document == null || document.getPreviewStatus() != PreviewStatus.PENDING) {
+            return;
+        }
+        PreviewStatus status;
+        try {
+            status = render(document);
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Failed to generate preview for document %d", documentId);
+            status = PreviewStatus.FAILED;
+        }
+        documentService.updatePreviewStatus(documentId, status);
+    }
+
+    private PreviewStatus render(Document document) throws IOException {
+        var previewKey = DocumentService.previewStorageKey(document.getStorageKey());
+        if (Files.isRegularFile(documentStore.resolve(previewKey))) {
+            return PreviewStatus.READY;
+        }
+        var mimeType = document.getMimeType() == null ? "" : document.getMimeType().toLowerCase();
+        BufferedImage source;
+        try (var content = documentService.openStream(DocumentSnapshot.of(document))) {
+            if (mimeType.equals("application/pdf")) {
+                source = renderFirstPage(content);
+            } else if (mimeType.startsWith("image/")) {
+                source = readImage(content);
+            } else {
+                return PreviewStatus.UNSUPPORTED;
+            }
+        }
+        if (source == null) {
+            return PreviewStatus.UNSUPPORTED;
+        }
+        var jpeg = encodeJpeg(scale(source));
+        var staged = documentStore.stage(new ByteArrayInputStream(jpeg), Long.MAX_VALUE);
+        documentStore.commit(staged, previewKey, false);
+        return PreviewStatus.READY;
+    }
+
+    private BufferedImage renderFirstPage(InputStream content) throws IOException {
+        try (var pdf = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            if (pdf.getNumberOfPages() == 0) {
+                return null;
+            }
+            var box = pdf.getPage(0).getCropBox();
+            var scale = maxDimension / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Decodes an image with source subsampling, so a large photo is never fully decoded in memory.
+     */
+    private BufferedImage readImage(InputStream content) throws IOException {
+        try (var input = ImageIO.createImageInputStream(content)) {
+            var readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            var reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                var width = reader.getWidth(0);
+                var height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large to preview: " + width + "x" + height);
+                }
+                var param = reader.getDefaultReadParam();
+                var step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        var ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        var width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        var height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        var target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        var graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        var param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        var bytes = new ByteArrayOutputStream();
+        try (var output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -2,54 +2,102 @@ package fr.ecodeli.service;
 
 import fr.ecodeli.config.DocumentStorageProperties;
 import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
 import fr.ecodeli.entity.DocumentAccess;
 import fr.ecodeli.entity.DocumentAccessId;
 import fr.ecodeli.entity.DocumentType;
+import fr.ecodeli.entity.PreviewStatus;
+import fr.ecodeli.metrics.DocumentMetrics;
 import fr.ecodeli.repository.DocumentAccessRepository;
 import fr.ecodeli.repository.DocumentRepository;
+import fr.ecodeli.storage.Compressibility;
+import fr.ecodeli.storage.ContentTooLargeException;
+import fr.ecodeli.storage.ContentTypes;
+import fr.ecodeli.storage.DocumentStore;
+import fr.ecodeli.storage.StagedContent;
+import fr.ecodeli.storage.StorageCodec;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.NotAllowedException;
 import jakarta.ws.rs.NotFoundException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.nio.file.attribute.FileTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class DocumentService {
 
     private static final Logger LOG = Logger.getLogger(DocumentService.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
 
     private final DocumentRepository documentRepository;
     private final DocumentAccessRepository accessRepository;
-    private final Path storageDirectory;
+    private final DocumentStore documentStore;
+    private final Cache accessCache;
+    private final Cache documentCache;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final Event<DocumentStoredEvent> storedEvent;
+    private final ChangeLogService changeLog;
+    private final DocumentMetrics metrics;
     private final long maxSizeBytes;
+    private final boolean contentAddressed;
+    private final int exportMaxEntries;
+    private final Map<DocumentType, StorageCodec> codecs;
+    private final int compressionSampleBytes;
+    private final double compressionMaxRatio;
 
     @Inject
     public DocumentService(DocumentRepository documentRepository,
                            DocumentAccessRepository accessRepository,
+                           DocumentStore documentStore,
+                           @CacheName("document-access") Cache accessCache,
+                           @CacheName("document") Cache documentCache,
+                           TransactionSynchronizationRegistry transactionRegistry,
+                           Event<DocumentStoredEvent> storedEvent,
+                           ChangeLogService changeLog,
+                           DocumentMetrics metrics,
                            DocumentStorageProperties config) {
         this.documentRepository = documentRepository;
         this.accessRepository = accessRepository;
-        this.storageDirectory = Path.of(config.storagePath());
+        this.documentStore = documentStore;
+        this.accessCache = accessCache;
+        this.documentCache = documentCache;
+        this.transactionRegistry = transactionRegistry;
+        this.storedEvent = storedEvent;
+        this.changeLog = changeLog;
+        this.metrics = metrics;
         this.maxSizeBytes = config.maxSizeBytes();
-        initStorageDirectory();
-    }
-
-    private void initStorageDirectory() {
-        try {
-            Files.createDirectories(storageDirectory);
-        } catch (IOException e) {
-            throw new IllegalStateException("Unable to create documents storage directory", e);
-        }
+        this.contentAddressed = config.contentAddressed();
+        this.exportMaxEntries = config.exportMaxEntries();
+        this.codecs = config.codecs();
+        this.compressionSampleBytes = config.compressionSampleBytes();
+        this.compressionMaxRatio = config.compressionMaxRatio();
     }
 
     @Transactional
@@ -59,66 +107,204 @@ public class DocumentService {
 
     @Transactional
     public Document store(byte[] content, String fileName, String mimeType, long ownerUserId, DocumentType type) {
-        if (content.length > maxSizeBytes) {
-            throw new NotAllowedException("File too large");
-        }
+        return store(new ByteArrayInputStream(content), fileName, mimeType, ownerUserId, type);
+    }
+
+    /**
+     * Streams the content to storage, hashing and measuring it on the way. In content-addressed mode the
+     * content is kept once per SHA-256 and codec, and an upload of known content only inserts the metadata
+     * row; the blob's key stays locked until the transaction ends, so {@link #delete} cannot remove it in
+     * between. Content is compressed at rest, while it is staged, when its type has a codec and a sample of
+     * its first bytes compresses well.
+     */
+    @Transactional
+    public Document store(InputStream content, String fileName, String mimeType, long ownerUserId, DocumentType type) {
         var document = new Document();
         document.setType(type == null ? DocumentType.OTHER : type);
-        document.setStorageKey(generateStorageKey(fileName, document.getType()));
         document.setFileName(fileName);
         document.setMimeType(mimeType);
-        document.setSizeBytes((long) content.length);
-        document.setSha256(hash(content));
-        documentRepository.persistAndFlush(document);
 
-        writeToDisk(document.getStorageKey(), content);
-        grantAccess(document, ownerUserId, true);
+        var staged = metrics.stageTimer().record(() -> stage(content, document));
+        metrics.uploaded(document.getType(), staged.sizeBytes());
+        document.setSizeBytes(staged.sizeBytes());
+        document.setSha256(staged.sha256());
+        document.setStorageCodec(staged.codec());
+        document.setStorageKey(contentAddressed
+                ? blobStorageKey(staged.sha256(), document.getStorageCodec())
+                : generateStorageKey(fileName, document.getType()));
+        if (contentAddressed) {
+            try {
+                documentRepository.lockStorageKey(document.getStorageKey());
+            } catch (RuntimeException e) {
+                documentStore.discard(staged);
+                throw e;
+            }
+        }
+        var created = metrics.commitTimer().record(() ->
+                documentStore.commit(staged, document.getStorageKey(), contentAddressed));
+        try {
+            documentRepository.persistAndFlush(document);
+            grantAccess(document, ownerUserId, true, true);
+        } catch (RuntimeException e) {
+            if (created) {
+                documentStore.delete(document.getStorageKey());
+            }
+            throw e;
+        }
+        storedEvent.fire(new DocumentStoredEvent(document.getId()));
         return document;
     }
 
-    public Document requireAccess(Long documentId, Long userId) {
-        var document = documentRepository.findByIdOptional(documentId)
-                .orElseThrow(NotFoundException::new);
-        var access = accessRepository.findByIdOptional(new DocumentAccessId(documentId, userId))
-                .orElseThrow(ForbiddenException::new);
+    /**
+     * Deletes the document and its access rows; only its manager may do so. In content-addressed mode the
+     * blob is shared, so it is only removed once no other document references it. The storage key is locked
+     * before that check, as {@link #store} locks it before reusing the blob.
+     */
+    @Transactional
+    public void delete(Long documentId, long userId) {
+        var document = documentRepository.findByIdOptional(documentId).orElseThrow(NotFoundException::new);
+        requireManageable(Set.of(documentId), userId);
+        var storageKey = document.getStorageKey();
+        documentRepository.lockStorageKey(storageKey);
+        changeLog.recordForDocumentUsers(documentId, ChangeOperation.DELETE);
+        accessRepository.delete("id.documentId", documentId);
+        documentRepository.delete(document);
+        evictAfterCompletion(documentCache, List.of(documentId));
+        if (documentRepository.countByStorageKey(storageKey) == 0) {
+            documentStore.delete(storageKey);
+            documentStore.delete(previewStorageKey(storageKey));
+        }
+    }
+
+    /**
+     * Returns the document if the user may read it. Two caches answer repeated lookups: which
+     * {@code (documentId, userId)} pairs are readable, and an immutable snapshot of each document, so that
+     * access changes and document updates each evict their own keys. A miss on the pair loads both with one
+     * joined query. Refusals are not cached, so granting access needs no eviction.
+     */
+    public DocumentSnapshot requireAccess(Long documentId, Long userId) {
+        accessCache.get(new AccessKey(documentId, userId), this::loadReadable).await().indefinitely();
+        return documentCache.get(documentId, this::loadSnapshot).await().indefinitely();
+    }
+
+    private Boolean loadReadable(AccessKey key) {
+        var access = accessRepository.findWithDocument(key.documentId(), key.userId()).orElse(null);
+        if (access == null) {
+            if (!documentRepository.existsById(key.documentId())) {
+                throw new NotFoundException();
+            }
+            throw new ForbiddenException();
+        }
         if (!access.isCanRead()) {
             throw new ForbiddenException();
         }
-        return document;
+        var snapshot = DocumentSnapshot.of(access.getDocument());
+        documentCache.as(CaffeineCache.class).put(key.documentId(), CompletableFuture.completedFuture(snapshot));
+        return Boolean.TRUE;
+    }
+
+    private DocumentSnapshot loadSnapshot(Long documentId) {
+        return documentRepository.findByIdOptional(documentId)
+                .map(DocumentSnapshot::of)
+                .orElseThrow(NotFoundException::new);
     }
 
     public byte[] readContent(Document document) {
-        var path = storageDirectory.resolve(document.getStorageKey());
-        try {
-            return Files.readAllBytes(path);
+        try (var in = openStream(DocumentSnapshot.of(document))) {
+            return in.readAllBytes();
         } catch (IOException e) {
             throw new NotFoundException("Document content unavailable");
         }
     }
 
     @Transactional
-    public void grantAccess(Document document, long userId, boolean canRead) {
+    public void grantAccess(Document document, long userId, boolean canRead, boolean canManage) {
         var accessId = new DocumentAccessId(document.getId(), userId);
         if (accessRepository.findByIdOptional(accessId).isPresent()) {
             return;
         }
-        var access = DocumentAccess.of(document, userId, canRead);
+        var access = DocumentAccess.of(document, userId, canRead, canManage);
         accessRepository.persist(access);
+        changeLog.record(userId, ChangeType.DOCUMENT, document.getId(), ChangeOperation.UPSERT);
+    }
+
+    /**
+     * Shares every document with every user in one statement, as read-only access. The caller must manage
+     * all of the documents; unknown user ids are ignored.
+     *
+     * @return the number of access rows created
+     */
+    @Transactional
+    public int shareAll(Set<Long> documentIds, Set<Long> userIds, long sharedByUserId) {
+        requireManageable(documentIds, sharedByUserId);
+        var inserted = accessRepository.insertAll(documentIds, userIds, true);
+        changeLog.recordForAccess(inserted, ChangeOperation.UPSERT);
+        return inserted.size();
+    }
+
+    /**
+     * Revokes the access of every user to every document. The caller must manage all of the documents, and
+     * the managers' own access is kept.
+     *
+     * @return the number of access rows deleted
+     */
+    @Transactional
+    public long revokeAll(Set<Long> documentIds, Set<Long> userIds, long revokedByUserId) {
+        requireManageable(documentIds, revokedByUserId);
+        var deleted = accessRepository.deleteAll(documentIds, userIds);
+        changeLog.recordForAccess(deleted, ChangeOperation.DELETE);
+        evictAfterCompletion(accessCache, accessKeys(deleted));
+        return deleted.size();
+    }
+
+    private void requireManageable(Set<Long> documentIds, long userId) {
+        if (accessRepository.countManageable(documentIds, userId) != documentIds.size()) {
+            throw new ForbiddenException();
+        }
+    }
+
+    /**
+     * Evicts cached entries now and once the transaction completes, so a concurrent lookup cannot re-cache
+     * the state from before the commit.
+     */
+    private void evictAfterCompletion(Cache cache, List<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        invalidate(cache, keys);
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(cache, keys);
+            }
+        });
+    }
+
+    private static void invalidate(Cache cache, List<?> keys) {
+        for (var key : keys) {
+            cache.invalidate(key).await().indefinitely();
+        }
     }
 
-    private void writeToDisk(String storageKey, byte[] content) {
-        var path = storageDirectory.resolve(storageKey);
+    private static List<AccessKey> accessKeys(List<DocumentAccessId> accessIds) {
+        return accessIds.stream().map(id -> new AccessKey(id.getDocumentId(), id.getUserId())).toList();
+    }
+
+    private StagedContent stage(InputStream content, Document document) {
         try {
-            Files.createDirectories(path.getParent());
-            Files.write(path, content);
-        } catch (IOException e) {
-            LOG.errorf(e, "Failed to write document %s", storageKey);
-            throw new IllegalStateException("Failed to store document", e);
+            return documentStore.stage(content, maxSizeBytes, compressionSampleBytes,
+                    sample -> chooseCodec(sample, document));
+        } catch (ContentTooLargeException e) {
+            throw new NotAllowedException("File too large");
         }
     }
 
-    private String generateStorageKey(String fileName, DocumentType type) {
-        var sanitized = fileName.replaceAll("\\s+", "-");
+    static String generateStorageKey(String fileName, DocumentType type) {
+        var sanitized = WHITESPACE.matcher(fileName).replaceAll("-");
         var directory = switch (type) {
             case CONTRACT -> "contracts";
             case INVOICE -> "invoices";
@@ -128,29 +314,134 @@ public class DocumentService {
         return directory + "/" + UUID.randomUUID() + "-" + sanitized;
     }
 
-    private String hash(byte[] content) {
-        try {
-            var digest = MessageDigest.getInstance("SHA-256");
-            return HexFormat.of().formatHex(digest.digest(content));
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 not available", e);
+    private StorageCodec chooseCodec(byte[] sample, Document document) {
+        var codec = codecs.getOrDefault(document.getType(), StorageCodec.NONE);
+        if (codec == StorageCodec.NONE || ContentTypes.isCompressed(document.getMimeType())) {
+            return StorageCodec.NONE;
         }
+        return Compressibility.sampleRatio(sample) <= compressionMaxRatio ? codec : StorageCodec.NONE;
+    }
+
+    /**
+     * Blobs keep the {@code blobs/<first two hex digits>/<sha256>} keys they were first stored under, so
+     * content uploaded before and after a change of shard depth is still stored once.
+     */
+    static String blobStorageKey(String sha256, StorageCodec codec) {
+        var key = "blobs/" + sha256.substring(0, 2) + "/" + sha256;
+        return codec == StorageCodec.NONE ? key : key + "." + codec.contentEncoding();
     }
 
     public Path resolveStoragePath(String storageKey) {
-        return storageDirectory.resolve(storageKey);
+        return documentStore.resolve(storageKey);
     }
 
-    public Document getMetadata(Long documentId, Long userId) {
+    public DocumentSnapshot getMetadata(Long documentId, Long userId) {
         return requireAccess(documentId, userId);
     }
 
-    public InputStream openStream(Document document) {
-        var path = resolveStoragePath(document.getStorageKey());
+    /**
+     * Resolves the stored file of a document so it can be served without going through a stream. The file
+     * holds the content encoded with the document's storage codec.
+     */
+    public Path contentPath(DocumentSnapshot document) {
+        var path = resolveStoragePath(document.storageKey());
+        if (!Files.isRegularFile(path)) {
+            throw new NotFoundException("Document content unavailable");
+        }
+        return path;
+    }
+
+    /**
+     * Lists the documents a user can read for an export, refusing filters that match too many of them.
+     */
+    public List<DocumentSnapshot> listExportable(Long userId, DocumentType type, OffsetDateTime from,
+                                                 OffsetDateTime to) {
+        var documents = documentRepository.listReadable(userId, type, from, to, exportMaxEntries + 1);
+        if (documents.size() > exportMaxEntries) {
+            throw new BadRequestException("Too many documents to export, narrow the filter");
+        }
+        return documents.stream().map(DocumentSnapshot::of).toList();
+    }
+
+    /**
+     * Streams the documents as a ZIP archive, one entry at a time. Content that is already compressed is
+     * written without deflating it again.
+     */
+    public void writeArchive(List<DocumentSnapshot> documents, OutputStream output) throws IOException {
+        try (var zip = new ZipOutputStream(output)) {
+            for (var document : documents) {
+                InputStream content;
+                try {
+                    content = openStream(document);
+                } catch (NotFoundException e) {
+                    LOG.warnf("Skipping document %d in export: content unavailable", document.id());
+                    continue;
+                }
+                try (content) {
+                    zip.setLevel(ContentTypes.isCompressed(document.mimeType())
+                            ? Deflater.NO_COMPRESSION
+                            : Deflater.DEFAULT_COMPRESSION);
+                    var entryName = document.id() + "-" + document.fileName().replaceAll("[/\\\\]", "_");
+                    var entry = new ZipEntry(entryName);
+                    entry.setCreationTime(FileTime.from(document.createdAt().toInstant()));
+                    zip.putNextEntry(entry);
+                    content.transferTo(zip);
+                    zip.closeEntry();
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the raw content of a document, decoding it when it is stored compressed.
+     */
+    public InputStream openStream(DocumentSnapshot document) {
+        InputStream stored;
+        var started = System.nanoTime();
         try {
-            return Files.newInputStream(path);
+            stored = documentStore.open(document.storageKey());
         } catch (IOException e) {
             throw new NotFoundException("Document content unavailable");
+        } finally {
+            metrics.openTimer().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
+        try {
+            return document.storageCodec().decode(stored);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to decode document %d", document.id());
+            try {
+                stored.close();
+            } catch (IOException ignored) {
+            }
+            throw new NotFoundException("Document content unavailable");
+        }
+    }
+
+    /**
+     * Records the outcome of preview generation and drops the cached copies of the document.
+     */
+    @Transactional
+    public void updatePreviewStatus(Long documentId, PreviewStatus status) {
+        documentRepository.update("previewStatus = ?1 where id = ?2", status, documentId);
+        changeLog.recordForDocumentUsers(documentId, ChangeOperation.UPSERT);
+        evictAfterCompletion(documentCache, List.of(documentId));
+    }
+
+    public Path previewPath(DocumentSnapshot document) {
+        var path = resolveStoragePath(previewStorageKey(document.storageKey()));
+        if (!Files.isRegularFile(path)) {
+            throw new NotFoundException("Preview not available");
+        }
+        return path;
+    }
+
+    /**
+     * Previews live next to the content they were generated from, so shared blobs share their preview.
+     */
+    static String previewStorageKey(String storageKey) {
+        return storageKey + ".preview.jpg";
+    }
+
+    private record AccessKey(Long documentId, Long userId) {
     }
 }
@@ -0,0 +1,22 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.DocumentType;
+import fr.ecodeli.entity.PreviewStatus;
+import fr.ecodeli.storage.StorageCodec;
+import java.time.OffsetDateTime;
+
+/**
+ * The fields of a {@link Document} needed to authorize and serve it, immutable so it can be cached and shared
+ * between requests.
+ */
+public record DocumentSnapshot(Long id, String storageKey, String fileName, String mimeType, Long sizeBytes,
+                               DocumentType type, String sha256, StorageCodec storageCodec,
+                               PreviewStatus previewStatus, OffsetDateTime createdAt) {
+
+    public static DocumentSnapshot of(Document document) {
+        return new DocumentSnapshot(document.getId(), document.getStorageKey(), document.getFileName(),
+                document.getMimeType(), document.getSizeBytes(), document.getType(), document.getSha256(),
+                document.getStorageCodec(), document.getPreviewStatus(), document.getCreatedAt());
+    }
+}
@@ -0,0 +1,68 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import fr.ecodeli.repository.DocumentRepository;
+import fr.ecodeli.storage.DocumentStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import org.jboss.logging.Logger;
+
+/**
+ * Moves stored files to the current shard layout while the application keeps serving them: the store
+ * still resolves keys at their previous location until each file has been moved.
+ */
+@ApplicationScoped
+public class DocumentStoreMigration {
+
+    private static final Logger LOG = Logger.getLogger(DocumentStoreMigration.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentStore documentStore;
+    private final boolean reshardOnStartup;
+
+    @Inject
+    public DocumentStoreMigration(DocumentRepository documentRepository,
+                                  DocumentStore documentStore,
+                                  DocumentStorageProperties config) {
+        this.documentRepository = documentRepository;
+        this.documentStore = documentStore;
+        this.reshardOnStartup = config.reshardOnStartup();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (reshardOnStartup) {
+            Thread.ofPlatform().daemon().name("document-reshard").start(this::reshard);
+        }
+    }
+
+    public long reshard() {
+        long afterId = 0;
+        long moved = 0;
+        long failed = 0;
+        while (true) {
+            var cursor = afterId;
+            var page = QuarkusTransaction.requiringNew().call(() -> documentRepository.listAfter(cursor, PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (var document : page) {
+                try {
+                    if (documentStore.relocate(document.getStorageKey())) {
+                        moved++;
+                    }
+                } catch (IOException e) {
+                    failed++;
+                    LOG.warnf(e, "Failed to re-shard document %d (%s)", document.getId(), document.getStorageKey());
+                }
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        LOG.infof("Document re-sharding finished: %d moved, %d failed", moved, failed);
+        return moved;
+    }
+}
@@ -0,0 +1,7 @@
+package fr.ecodeli.service;
+
+/**
+ * Fired once a new document row has been persisted; observers reacting after commit see the document.
+ */
+public record DocumentStoredEvent(Long documentId) {
+}
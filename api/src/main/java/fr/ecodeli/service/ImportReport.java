@@ -0,0 +1,13 @@
+package fr.ecodeli.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the configured number of failed rows, by line.
+ */
+public record ImportReport(long imported, long failed, List<RowError> errors, long durationMillis,
+                           double rowsPerSecond) {
+
+    public record RowError(long line, String message) {
+    }
+}
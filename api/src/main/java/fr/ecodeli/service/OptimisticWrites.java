@@ -0,0 +1,39 @@
+package fr.ecodeli.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+import java.util.Set;
+
+/**
+ * Conditional writes against {@code @Version} columns. The expected version is checked against the loaded
+ * entity, usually served by the second-level cache, and again by the {@code where version = ?} of the
+ * flushed update, so a write racing with another one fails instead of overwriting it.
+ */
+final class OptimisticWrites {
+
+    private OptimisticWrites() {
+    }
+
+    /**
+     * @param expectedVersions the versions the client accepts, or {@code null} for an unconditional write
+     */
+    static void requireVersion(Set<Long> expectedVersions, long currentVersion) {
+        if (expectedVersions != null && !expectedVersions.contains(currentVersion)) {
+            throw preconditionFailed();
+        }
+    }
+
+    static void flush(EntityManager entityManager) {
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            throw preconditionFailed();
+        }
+    }
+
+    static ClientErrorException preconditionFailed() {
+        return new ClientErrorException("Resource was modified", Response.Status.PRECONDITION_FAILED);
+    }
+}
@@ -0,0 +1,39 @@
+package fr.ecodeli.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is {@code null} on the last page.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * @return the requested page size, defaulted and capped to {@link #MAX_SIZE}
+     */
+    public static int size(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(requested, MAX_SIZE);
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only tells that
+     * another page follows.
+     */
+    static <T> Page<T> of(List<T> rows, int size, Function<T, String> cursor) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        var items = rows.subList(0, size);
+        return new Page<>(items, cursor.apply(items.get(size - 1)));
+    }
+
+    public <R> Page<R> map(Function<? super T, ? extends R> mapper) {
+        return new Page<>(items.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,49 @@
+package fr.ecodeli.service;
+
+import jakarta.ws.rs.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the id of the last row of a page and, for listings sorted by another column, that
+ * row's sort key. Clients pass it back unchanged to get the next page.
+ */
+record PageCursor(long id, String key) {
+
+    private static final PageCursor START = new PageCursor(0, null);
+
+    static String of(long id) {
+        return new PageCursor(id, null).encode();
+    }
+
+    static String of(String key, long id) {
+        return new PageCursor(id, key).encode();
+    }
+
+    /**
+     * @param keyed whether the listing is sorted by a key other than the id
+     * @return the decoded cursor, or a cursor before the first row when none was given
+     */
+    static PageCursor decode(String cursor, boolean keyed) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = decoded.indexOf('\n');
+            if (keyed != separator >= 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return keyed
+                    ? new PageCursor(Long.parseLong(decoded.substring(0, separator)), decoded.substring(separator + 1))
+                    : new PageCursor(Long.parseLong(decoded), null);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private String encode() {
+        var value = key == null ? Long.toString(id) : id + "\n" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,15 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.AppUserStatus;
+
+/**
+ * The identity fields of a provisioned {@link AppUser}, small and immutable enough to be cached per token
+ * subject.
+ */
+public record ProvisionedUser(Long id, String keycloakUserId, String email, AppUserStatus status) {
+
+    public static ProvisionedUser of(AppUser user) {
+        return new ProvisionedUser(user.getId(), user.getKeycloakUserId(), user.getEmail(), user.getStatus());
+    }
+}
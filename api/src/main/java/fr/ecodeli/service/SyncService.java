@@ -0,0 +1,146 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.config.SyncProperties;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.DocumentAccess;
+import fr.ecodeli.repository.AppUserRepository;
+import fr.ecodeli.repository.ChangeLogRepository;
+import fr.ecodeli.repository.DocumentAccessRepository;
+import fr.ecodeli.repository.UserAddressRepository;
+import fr.ecodeli.repository.UserProfileRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "what changed since this cursor" for the caller's user, profile, addresses and readable documents.
+ * The cursor is the last change log sequence number the client applied. Several changes of one entity are
+ * folded into its latest state, loaded in one query per entity type; an entity changed but no longer
+ * visible is reported as deleted.
+ */
+@ApplicationScoped
+public class SyncService {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final AppUserRepository appUserRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final UserAddressRepository userAddressRepository;
+    private final DocumentAccessRepository documentAccessRepository;
+    private final int pageSize;
+
+    @Inject
+    public SyncService(ChangeLogRepository changeLogRepository,
+                       AppUserRepository appUserRepository,
+                       UserProfileRepository userProfileRepository,
+                       UserAddressRepository userAddressRepository,
+                       DocumentAccessRepository documentAccessRepository,
+                       SyncProperties config) {
+        this.changeLogRepository = changeLogRepository;
+        this.appUserRepository = appUserRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.userAddressRepository = userAddressRepository;
+        this.documentAccessRepository = documentAccessRepository;
+        this.pageSize = config.pageSize();
+    }
+
+    /**
+     * Returns the changes after {@code cursor}. Without a cursor, or with one the log no longer covers, the
+     * delta is a reset: the client must refetch its data in full, then continue from the returned cursor.
+     */
+    public Delta changesSince(Long userId, String cursor) {
+        var bounds = changeLogRepository.bounds(userId);
+        var head = bounds == null ? 0 : bounds[1];
+        if (cursor == null || cursor.isBlank()) {
+            return Delta.reset(head);
+        }
+        var after = PageCursor.decode(cursor, false).id();
+        var truncated = bounds == null ? after > 0 : after < bounds[0] - 1 || after > head;
+        if (truncated) {
+            return Delta.reset(head);
+        }
+
+        var entries = changeLogRepository.listAfter(userId, after, pageSize + 1);
+        var hasMore = entries.size() > pageSize;
+        if (hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+        if (entries.isEmpty()) {
+            return new Delta(List.of(), PageCursor.of(after), false, false);
+        }
+        var latest = new LinkedHashMap<ChangeKey, ChangeOperation>();
+        for (var entry : entries) {
+            var key = new ChangeKey(entry.getEntityType(), entry.getEntityId());
+            latest.remove(key);
+            latest.put(key, entry.getOperation());
+        }
+        var states = loadStates(userId, latest);
+        var changes = new ArrayList<Change>(latest.size());
+        latest.forEach((key, operation) -> {
+            var state = operation == ChangeOperation.UPSERT ? states.get(key) : null;
+            changes.add(new Change(key.type(), key.id(), state == null ? ChangeOperation.DELETE : operation, state));
+        });
+        var last = entries.get(entries.size() - 1).getId().getSeq();
+        return new Delta(changes, PageCursor.of(last), hasMore, false);
+    }
+
+    private Map<ChangeKey, Object> loadStates(Long userId, Map<ChangeKey, ChangeOperation> latest) {
+        var upserted = new EnumMap<ChangeType, List<Long>>(ChangeType.class);
+        latest.forEach((key, operation) -> {
+            if (operation == ChangeOperation.UPSERT) {
+                upserted.computeIfAbsent(key.type(), type -> new ArrayList<>()).add(key.id());
+            }
+        });
+        var states = new HashMap<ChangeKey, Object>();
+        if (upserted.containsKey(ChangeType.USER)) {
+            appUserRepository.findByIdOptional(userId)
+                    .ifPresent(user -> states.put(new ChangeKey(ChangeType.USER, userId), user));
+        }
+        if (upserted.containsKey(ChangeType.PROFILE)) {
+            userProfileRepository.findByIdOptional(userId)
+                    .ifPresent(profile -> states.put(new ChangeKey(ChangeType.PROFILE, userId), profile));
+        }
+        if (upserted.containsKey(ChangeType.ADDRESS)) {
+            put(states, ChangeType.ADDRESS,
+                    userAddressRepository.listWithAddress(userId, upserted.get(ChangeType.ADDRESS)),
+                    userAddress -> userAddress.getId().getAddressId());
+        }
+        if (upserted.containsKey(ChangeType.DOCUMENT)) {
+            put(states, ChangeType.DOCUMENT,
+                    documentAccessRepository.listReadableWithDocument(userId, upserted.get(ChangeType.DOCUMENT))
+                            .stream().map(DocumentAccess::getDocument).toList(),
+                    Document::getId);
+        }
+        return states;
+    }
+
+    private static <T> void put(Map<ChangeKey, Object> states, ChangeType type, List<T> entities,
+                                Function<T, Long> id) {
+        states.putAll(entities.stream().collect(Collectors.toMap(entity -> new ChangeKey(type, id.apply(entity)),
+                entity -> entity)));
+    }
+
+    private record ChangeKey(ChangeType type, long id) {
+    }
+
+    /**
+     * A changed entity. {@code state} is the current entity for an upsert, and {@code null} for a deletion.
+     */
+    public record Change(ChangeType type, long id, ChangeOperation operation, Object state) {
+    }
+
+    public record Delta(List<Change> changes, String cursor, boolean hasMore, boolean reset) {
+
+        static Delta reset(long head) {
+            return new Delta(List.of(), PageCursor.of(head), false, true);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.entity.DocumentType;
+import java.time.OffsetDateTime;
+
+public record UploadSession(
+        String id,
+        long ownerUserId,
+        String fileName,
+        String mimeType,
+        DocumentType type,
+        Long totalSize,
+        long receivedBytes,
+        OffsetDateTime createdAt
+) {
+
+    UploadSession withReceivedBytes(long received) {
+        return new UploadSession(id, ownerUserId, fileName, mimeType, type, totalSize, received, createdAt);
+    }
+}
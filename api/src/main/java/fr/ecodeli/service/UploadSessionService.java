@@ -0,0 +1,254 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.DocumentType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotAllowedException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Properties;
+import java.util.UUID;
+import org.jboss.logging.Logger;
+
+/**
+ * Resumable uploads: the received bytes are appended to a part file on disk, next to a small properties file
+ * describing the session, so a client can resume from the last acknowledged offset after a dropped
+ * connection, even across restarts. Completing a session hands the part file to {@link DocumentService}.
+ */
+@ApplicationScoped
+public class UploadSessionService {
+
+    private static final Logger LOG = Logger.getLogger(UploadSessionService.class);
+    public static final String OFFSET_HEADER = "Upload-Offset";
+
+    private final DocumentService documentService;
+    private final Path uploadsDirectory;
+    private final long maxSizeBytes;
+    private final Duration sessionTtl;
+
+    @Inject
+    public UploadSessionService(DocumentService documentService, DocumentStorageProperties config) {
+        this.documentService = documentService;
+        this.uploadsDirectory = Path.of(config.storagePath()).resolve(".uploads");
+        this.maxSizeBytes = config.maxSizeBytes();
+        this.sessionTtl = config.uploadSessionTtl();
+        try {
+            Files.createDirectories(uploadsDirectory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create upload sessions directory", e);
+        }
+    }
+
+    public UploadSession create(long ownerUserId, String fileName, String mimeType, DocumentType type, Long totalSize) {
+        if (totalSize != null && totalSize > maxSizeBytes) {
+            throw new NotAllowedException("File too large");
+        }
+        purgeExpired();
+        var session = new UploadSession(UUID.randomUUID().toString(), ownerUserId, fileName, mimeType,
+                type == null ? DocumentType.OTHER : type, totalSize, 0, OffsetDateTime.now());
+        try {
+            Files.createFile(partFile(session.id()));
+            writeMetadata(session);
+        } catch (IOException e) {
+            LOG.errorf(e, "Failed to create upload session %s", session.id());
+            throw new IllegalStateException("Failed to create upload session", e);
+        }
+        return session;
+    }
+
+    public UploadSession get(String sessionId, long userId) {
+        var session = readMetadata(sessionId);
+        if (session.ownerUserId() != userId) {
+            throw new NotFoundException();
+        }
+        try {
+            return session.withReceivedBytes(Files.size(partFile(session.id())));
+        } catch (IOException e) {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * Appends a chunk at {@code offset}, which must match the bytes received so far. A chunk that would
+     * push the upload past its declared or maximum size is rolled back entirely.
+     */
+    public UploadSession append(String sessionId, long userId, long offset, InputStream chunk) {
+        var session = get(sessionId, userId);
+        var limit = session.totalSize() != null ? session.totalSize() : maxSizeBytes;
+        try (var channel = FileChannel.open(partFile(session.id()), StandardOpenOption.WRITE);
+             var lock = tryLock(channel)) {
+            if (Files.notExists(metadataFile(session.id()))) {
+                throw new NotFoundException();
+            }
+            var received = channel.size();
+            if (offset != received) {
+                throw conflict(received);
+            }
+            var source = Channels.newChannel(chunk);
+            var position = received;
+            long transferred;
+            while ((transferred = channel.transferFrom(source, position, limit - position + 1)) > 0) {
+                position += transferred;
+                if (position > limit) {
+                    channel.truncate(received);
+                    throw new NotAllowedException("File too large");
+                }
+            }
+            channel.force(false);
+            return session.withReceivedBytes(position);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to append to upload session %s", sessionId);
+            throw new UncheckedIOException("Failed to append upload chunk", e);
+        }
+    }
+
+    /**
+     * Stores the received content as a document. The part file is locked like in {@link #append}, and the
+     * session is claimed by deleting its metadata under the lock before storing, so a chunk cannot land
+     * while the content is read and a second completion finds no session. The claim is released if storing
+     * fails, so the client can retry.
+     */
+    public Document complete(String sessionId, long userId) {
+        var session = get(sessionId, userId);
+        Document document;
+        try (var channel = FileChannel.open(partFile(session.id()), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             var lock = tryLock(channel)) {
+            var received = channel.size();
+            if (session.totalSize() != null && received != session.totalSize()) {
+                throw conflict(received);
+            }
+            if (!Files.deleteIfExists(metadataFile(session.id()))) {
+                throw new NotFoundException();
+            }
+            try {
+                document = documentService.store(Channels.newInputStream(channel.position(0)), session.fileName(),
+                        session.mimeType(), session.ownerUserId(), session.type());
+            } catch (RuntimeException e) {
+                writeMetadata(session);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read upload session " + sessionId, e);
+        }
+        deleteFiles(session.id());
+        return document;
+    }
+
+    public void abort(String sessionId, long userId) {
+        deleteFiles(get(sessionId, userId).id());
+    }
+
+    private FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            var lock = channel.tryLock();
+            if (lock == null) {
+                throw new ClientErrorException("Upload session is busy", Response.Status.CONFLICT);
+            }
+            return lock;
+        } catch (OverlappingFileLockException e) {
+            throw new ClientErrorException("Upload session is busy", Response.Status.CONFLICT);
+        }
+    }
+
+    private ClientErrorException conflict(long received) {
+        return new ClientErrorException(Response.status(Response.Status.CONFLICT)
+                .header(OFFSET_HEADER, received)
+                .build());
+    }
+
+    /**
+     * Drops sessions that have not received any chunk for longer than the configured TTL.
+     */
+    private void purgeExpired() {
+        var expiry = Instant.now().minus(sessionTtl);
+        try (var files = Files.list(uploadsDirectory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(".part"))
+                    .forEach(path -> {
+                        try {
+                            if (Files.getLastModifiedTime(path).toInstant().isBefore(expiry)) {
+                                deleteFiles(path.getFileName().toString().replace(".part", ""));
+                            }
+                        } catch (IOException e) {
+                            LOG.debugf(e, "Skipping upload session file %s", path);
+                        }
+                    });
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to purge expired upload sessions");
+        }
+    }
+
+    private void writeMetadata(UploadSession session) throws IOException {
+        var properties = new Properties();
+        properties.setProperty("ownerUserId", Long.toString(session.ownerUserId()));
+        properties.setProperty("fileName", session.fileName());
+        properties.setProperty("mimeType", session.mimeType());
+        properties.setProperty("type", session.type().name());
+        if (session.totalSize() != null) {
+            properties.setProperty("totalSize", Long.toString(session.totalSize()));
+        }
+        properties.setProperty("createdAt", session.createdAt().toString());
+        try (var out = Files.newOutputStream(metadataFile(session.id()))) {
+            properties.store(out, null);
+        }
+    }
+
+    private UploadSession readMetadata(String sessionId) {
+        var properties = new Properties();
+        try (var in = Files.newInputStream(metadataFile(sessionId))) {
+            properties.load(in);
+            var totalSize = properties.getProperty("totalSize");
+            return new UploadSession(sessionId,
+                    Long.parseLong(properties.getProperty("ownerUserId")),
+                    properties.getProperty("fileName"),
+                    properties.getProperty("mimeType"),
+                    DocumentType.valueOf(properties.getProperty("type")),
+                    totalSize == null ? null : Long.parseLong(totalSize),
+                    0,
+                    OffsetDateTime.parse(properties.getProperty("createdAt")));
+        } catch (IOException | RuntimeException e) {
+            throw new NotFoundException();
+        }
+    }
+
+    private void deleteFiles(String sessionId) {
+        try {
+            Files.deleteIfExists(partFile(sessionId));
+            Files.deleteIfExists(metadataFile(sessionId));
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to delete upload session %s", sessionId);
+        }
+    }
+
+    private Path partFile(String sessionId) {
+        return uploadsDirectory.resolve(validId(sessionId) + ".part");
+    }
+
+    private Path metadataFile(String sessionId) {
+        return uploadsDirectory.resolve(validId(sessionId) + ".properties");
+    }
+
+    private String validId(String sessionId) {
+        try {
+            return UUID.fromString(sessionId).toString();
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException();
+        }
+    }
+}
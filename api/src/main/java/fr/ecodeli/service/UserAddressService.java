@@ -2,6 +2,8 @@ package fr.ecodeli.service;
 
 import fr.ecodeli.entity.Address;
 import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
 import fr.ecodeli.entity.UserAddress;
 import fr.ecodeli.entity.UserAddressId;
 import fr.ecodeli.repository.UserAddressRepository;
@@ -9,21 +11,18 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
-import java.util.List;
 import java.util.Optional;
 
 @ApplicationScoped
 public class UserAddressService {
 
     private final UserAddressRepository repository;
+    private final ChangeLogService changeLog;
 
     @Inject
-    public UserAddressService(UserAddressRepository repository) {
+    public UserAddressService(UserAddressRepository repository, ChangeLogService changeLog) {
         this.repository = repository;
-    }
-
-    public List<UserAddress> listAll() {
-        return repository.listAll();
+        this.changeLog = changeLog;
     }
 
     public Optional<UserAddress> findById(UserAddressId id) {
@@ -33,17 +32,24 @@ public class UserAddressService {
     @Transactional
     public UserAddress create(UserAddress userAddress) {
         repository.persist(userAddress);
+        recordChange(userAddress.getId(), ChangeOperation.UPSERT);
         return userAddress;
     }
 
     @Transactional
     public UserAddress update(UserAddress userAddress) {
-        return repository.getEntityManager().merge(userAddress);
+        var merged = repository.getEntityManager().merge(userAddress);
+        recordChange(merged.getId(), ChangeOperation.UPSERT);
+        return merged;
     }
 
     @Transactional
     public boolean delete(UserAddressId id) {
-        return repository.deleteById(id);
+        var deleted = repository.deleteById(id);
+        if (deleted) {
+            recordChange(id, ChangeOperation.DELETE);
+        }
+        return deleted;
     }
 
     public UserAddress getRequired(UserAddressId id) {
@@ -58,16 +64,29 @@ public class UserAddressService {
         userAddress.setId(new UserAddressId(user.getId(), address.getId()));
         userAddress.setDefault(isDefault);
         repository.persist(userAddress);
+        recordChange(userAddress.getId(), ChangeOperation.UPSERT);
         return userAddress;
     }
 
-    @Transactional
-    public void ensureOwnership(AppUser user, Long addressId) {
-        var id = new UserAddressId(user.getId(), addressId);
+    /**
+     * Throws {@link NotFoundException} unless the user owns the address. The link is read through the
+     * second-level cache, so this normally does not reach the database.
+     */
+    public void ensureOwnership(Long userId, Long addressId) {
+        var id = new UserAddressId(userId, addressId);
         getRequired(id);
     }
 
-    public List<UserAddress> listByUserId(Long userId) {
-        return repository.list("user.id", userId);
+    /**
+     * Lists a page of a user's addresses in address id order.
+     */
+    public Page<UserAddress> listByUserId(Long userId, String cursor, Integer size) {
+        var limit = Page.size(size);
+        var rows = repository.listWithAddressByUserId(userId, PageCursor.decode(cursor, false).id(), limit + 1);
+        return Page.of(rows, limit, userAddress -> PageCursor.of(userAddress.getId().getAddressId()));
+    }
+
+    private void recordChange(UserAddressId id, ChangeOperation operation) {
+        changeLog.record(id.getUserId(), ChangeType.ADDRESS, id.getAddressId(), operation);
     }
 }
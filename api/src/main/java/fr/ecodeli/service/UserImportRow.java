@@ -0,0 +1,45 @@
+package fr.ecodeli.service;
+
+import fr.ecodeli.entity.AppUserStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One line of a user import: the user, an optional profile and the addresses to link to it.
+ */
+public record UserImportRow(
+        @NotBlank @Size(max = 64) String keycloakUserId,
+        @NotBlank @Email @Size(max = 320) String email,
+        @Size(max = 32) String phone,
+        AppUserStatus status,
+        @Valid Profile profile,
+        List<@Valid Address> addresses
+) {
+
+    public record Profile(
+            @Size(max = 100) String firstName,
+            @Size(max = 100) String lastName,
+            @Past LocalDate birthDate,
+            @Size(max = 16) String defaultLanguage
+    ) {
+    }
+
+    public record Address(
+            @Size(max = 120) String label,
+            @NotBlank @Size(max = 200) String line1,
+            @Size(max = 200) String line2,
+            @NotBlank @Size(max = 20) String postalCode,
+            @NotBlank @Size(max = 120) String city,
+            @NotBlank @Size(min = 2, max = 2) String countryCode,
+            BigDecimal latitude,
+            BigDecimal longitude,
+            boolean isDefault
+    ) {
+    }
+}
@@ -0,0 +1,245 @@
+package fr.ecodeli.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import fr.ecodeli.config.ImportProperties;
+import fr.ecodeli.entity.AppUserStatus;
+import fr.ecodeli.repository.UserImportRepository;
+import fr.ecodeli.repository.UserImportRepository.NewAddress;
+import fr.ecodeli.repository.UserImportRepository.NewProfile;
+import fr.ecodeli.repository.UserImportRepository.NewUser;
+import fr.ecodeli.search.AddressSnapshot;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import org.jboss.logging.Logger;
+
+/**
+ * Imports users with their profile and addresses from NDJSON, one object per line. The input is read line
+ * by line and written in batches, each in its own transaction, so memory stays bounded by the batch size.
+ * Invalid or conflicting rows are reported by line number without failing the rest of the import.
+ */
+@ApplicationScoped
+public class UserImportService {
+
+    private static final Logger LOG = Logger.getLogger(UserImportService.class);
+
+    private final UserImportRepository repository;
+    private final ObjectReader rowReader;
+    private final Validator validator;
+    private final Event<AddressChangedEvent> addressChanged;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Inject
+    public UserImportService(UserImportRepository repository,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             Event<AddressChangedEvent> addressChanged,
+                             ImportProperties config) {
+        this.repository = repository;
+        this.rowReader = objectMapper.readerFor(UserImportRow.class);
+        this.validator = validator;
+        this.addressChanged = addressChanged;
+        this.batchSize = config.batchSize();
+        this.maxReportedErrors = config.maxReportedErrors();
+    }
+
+    public ImportReport importNdjson(InputStream input) {
+        var started = System.nanoTime();
+        var progress = new Progress(maxReportedErrors);
+        var batch = new ArrayList<Line>(batchSize);
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String text;
+            long number = 0;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                var line = parse(number, text, progress);
+                if (line == null) {
+                    continue;
+                }
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    flush(batch, progress);
+                    batch.clear();
+                }
+            }
+            flush(batch, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import input", e);
+        }
+        var elapsedNanos = System.nanoTime() - started;
+        var rowsPerSecond = elapsedNanos == 0 ? 0 : progress.imported * 1_000_000_000d / elapsedNanos;
+        LOG.infof("Imported %d users (%d failed) in %d ms, %.0f rows/s",
+                progress.imported, progress.failed, elapsedNanos / 1_000_000, rowsPerSecond);
+        return new ImportReport(progress.imported, progress.failed, List.copyOf(progress.errors),
+                elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private Line parse(long number, String text, Progress progress) {
+        UserImportRow row;
+        try {
+            row = rowReader.readValue(text);
+        } catch (JsonProcessingException e) {
+            progress.fail(number, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        var violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            progress.fail(number, violations.stream()
+                    .map(this::describe)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return new Line(number, row);
+    }
+
+    /**
+     * Writes a batch in one transaction. If the batch fails as a whole, typically because another writer
+     * created one of its users in the meantime, it is replayed one row per transaction to isolate the rows
+     * at fault.
+     */
+    private void flush(List<Line> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            var rejected = QuarkusTransaction.requiringNew().call(() -> write(batch));
+            progress.imported += batch.size() - rejected.size();
+            rejected.forEach(line -> progress.fail(line.number(), "User already exists"));
+        } catch (RuntimeException batchFailure) {
+            LOG.debugf(batchFailure, "Import batch failed, retrying its %d rows one by one", batch.size());
+            for (var line : batch) {
+                try {
+                    var rejected = QuarkusTransaction.requiringNew().call(() -> write(List.of(line)));
+                    if (rejected.isEmpty()) {
+                        progress.imported++;
+                    } else {
+                        progress.fail(line.number(), "User already exists");
+                    }
+                } catch (RuntimeException rowFailure) {
+                    progress.fail(line.number(), rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the lines skipped because their Keycloak id or email is already taken
+     */
+    private List<Line> write(List<Line> batch) {
+        var existing = repository.findExistingKeys(
+                batch.stream().map(line -> line.row().keycloakUserId()).toList(),
+                batch.stream().map(line -> normalizeEmail(line.row().email())).toList());
+        var seen = new HashSet<>(existing);
+        var accepted = new ArrayList<Line>(batch.size());
+        var rejected = new ArrayList<Line>();
+        var addressCount = 0;
+        for (var line : batch) {
+            var row = line.row();
+            var email = normalizeEmail(row.email());
+            if (seen.contains(row.keycloakUserId()) || seen.contains(email)) {
+                rejected.add(line);
+                continue;
+            }
+            seen.add(row.keycloakUserId());
+            seen.add(email);
+            accepted.add(line);
+            addressCount += row.addresses() == null ? 0 : row.addresses().size();
+        }
+        if (accepted.isEmpty()) {
+            return rejected;
+        }
+
+        var userIds = repository.allocateIds("app_user_seq", accepted.size());
+        var addressIds = addressCount == 0 ? new long[0] : repository.allocateIds("address_seq", addressCount);
+        var users = new ArrayList<NewUser>(accepted.size());
+        var profiles = new ArrayList<NewProfile>(accepted.size());
+        var addresses = new ArrayList<NewAddress>(addressCount);
+        var nextAddress = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            var row = accepted.get(i).row();
+            var userId = userIds[i];
+            users.add(new NewUser(userId, row.keycloakUserId(), normalizeEmail(row.email()), row.phone(),
+                    row.status() == null ? AppUserStatus.ACTIVE : row.status()));
+            var profile = row.profile();
+            if (profile != null) {
+                profiles.add(new NewProfile(userId, profile.firstName(), profile.lastName(), profile.birthDate(),
+                        profile.defaultLanguage()));
+            }
+            if (row.addresses() != null) {
+                for (var address : row.addresses()) {
+                    addresses.add(new NewAddress(addressIds[nextAddress++], userId, address.label(),
+                            address.line1(), address.line2(), address.postalCode(), address.city(),
+                            address.countryCode().toUpperCase(Locale.ROOT), address.latitude(),
+                            address.longitude(), address.isDefault()));
+                }
+            }
+        }
+        repository.insert(users, profiles, addresses);
+        for (var address : addresses) {
+            addressChanged.fire(new AddressChangedEvent(address.id(), new AddressSnapshot(address.id(),
+                    address.line1(), address.postalCode(), address.city(), address.countryCode(),
+                    address.latitude() == null ? null : address.latitude().doubleValue(),
+                    address.longitude() == null ? null : address.longitude().doubleValue())));
+        }
+        return rejected;
+    }
+
+    private String describe(ConstraintViolation<UserImportRow> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String rootMessage(Throwable failure) {
+        var root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
+    }
+
+    private record Line(long number, UserImportRow row) {
+    }
+
+    private static final class Progress {
+
+        private final int maxReportedErrors;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+    }
+}
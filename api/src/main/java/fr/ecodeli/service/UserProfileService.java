@@ -1,27 +1,33 @@
 package fr.ecodeli.service;
 
 import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
 import fr.ecodeli.entity.UserProfile;
 import fr.ecodeli.repository.UserProfileRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class UserProfileService {
 
     private final UserProfileRepository repository;
+    private final ChangeLogService changeLog;
 
     @Inject
-    public UserProfileService(UserProfileRepository repository) {
+    public UserProfileService(UserProfileRepository repository, ChangeLogService changeLog) {
         this.repository = repository;
+        this.changeLog = changeLog;
     }
 
-    public List<UserProfile> listAll() {
-        return repository.listAll();
+    public Page<UserProfile> list(String lastNamePrefix, String cursor, Integer size) {
+        var limit = Page.size(size);
+        var rows = repository.listPage(lastNamePrefix, PageCursor.decode(cursor, false).id(), limit + 1);
+        return Page.of(rows, limit, profile -> PageCursor.of(profile.getUserId()));
     }
 
     public Optional<UserProfile> findByUserId(Long userId) {
@@ -32,9 +38,18 @@ public class UserProfileService {
         return findByUserId(userId).orElseThrow(NotFoundException::new);
     }
 
+    /**
+     * Creates or updates the user's profile. With {@code expectedVersions}, the profile must exist and have
+     * one of these versions; {@code null} saves unconditionally.
+     */
     @Transactional
-    public UserProfile saveForUser(AppUser user, UserProfile payload) {
-        var profile = repository.findByIdOptional(user.getId()).orElseGet(() -> {
+    public UserProfile saveForUser(AppUser user, UserProfile payload, Set<Long> expectedVersions) {
+        var existing = repository.findByIdOptional(user.getId());
+        if (expectedVersions != null) {
+            OptimisticWrites.requireVersion(expectedVersions,
+                    existing.orElseThrow(OptimisticWrites::preconditionFailed).getVersion());
+        }
+        var profile = existing.orElseGet(() -> {
             var created = new UserProfile();
             created.setUserId(user.getId());
             created.setUser(user);
@@ -49,22 +64,35 @@ public class UserProfileService {
         if (!repository.isPersistent(profile)) {
             repository.persist(profile);
         }
+        OptimisticWrites.flush(repository.getEntityManager());
+        recordChange(profile.getUserId(), ChangeOperation.UPSERT);
         return profile;
     }
 
     @Transactional
     public UserProfile create(UserProfile profile) {
         repository.persist(profile);
+        recordChange(profile.getUserId(), ChangeOperation.UPSERT);
         return profile;
     }
 
     @Transactional
     public UserProfile update(UserProfile profile) {
-        return repository.getEntityManager().merge(profile);
+        var merged = repository.getEntityManager().merge(profile);
+        recordChange(merged.getUserId(), ChangeOperation.UPSERT);
+        return merged;
     }
 
     @Transactional
     public boolean deleteByUserId(Long userId) {
-        return repository.deleteById(userId);
+        var deleted = repository.deleteById(userId);
+        if (deleted) {
+            recordChange(userId, ChangeOperation.DELETE);
+        }
+        return deleted;
+    }
+
+    private void recordChange(long userId, ChangeOperation operation) {
+        changeLog.record(userId, ChangeType.PROFILE, userId, operation);
     }
 }
@@ -0,0 +1,34 @@
+package fr.ecodeli.storage;
+
+import java.util.zip.Deflater;
+
+/**
+ * Estimates how well content compresses by deflating a prefix of it at the fastest level.
+ */
+public final class Compressibility {
+
+    private Compressibility() {
+    }
+
+    /**
+     * @return the compressed to original size ratio of the sample, or 1 for an empty sample
+     */
+    public static double sampleRatio(byte[] sample) {
+        if (sample.length == 0) {
+            return 1;
+        }
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            var buffer = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+            return (double) compressed / sample.length;
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package fr.ecodeli.storage;
+
+public class ContentTooLargeException extends RuntimeException {
+
+    public ContentTooLargeException(long maxSizeBytes) {
+        super("Content exceeds " + maxSizeBytes + " bytes");
+    }
+}
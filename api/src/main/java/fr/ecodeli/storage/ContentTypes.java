@@ -0,0 +1,41 @@
+package fr.ecodeli.storage;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Media types whose content is already compressed, so compressing it again only costs CPU.
+ */
+public final class ContentTypes {
+
+    private static final Set<String> COMPRESSED = Set.of(
+            "application/pdf",
+            "application/zip",
+            "application/gzip",
+            "application/x-7z-compressed",
+            "application/x-rar-compressed",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.oasis.opendocument.text",
+            "image/jpeg",
+            "image/png",
+            "image/gif",
+            "image/webp",
+            "image/heic",
+            "image/avif");
+
+    private ContentTypes() {
+    }
+
+    public static boolean isCompressed(String mimeType) {
+        if (mimeType == null) {
+            return false;
+        }
+        var normalized = mimeType.toLowerCase(Locale.ROOT);
+        var parameters = normalized.indexOf(';');
+        if (parameters >= 0) {
+            normalized = normalized.substring(0, parameters).trim();
+        }
+        return COMPRESSED.contains(normalized) || normalized.startsWith("video/") || normalized.startsWith("audio/");
+    }
+}
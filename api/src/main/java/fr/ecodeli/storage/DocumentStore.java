@@ -0,0 +1,59 @@
+package fr.ecodeli.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * Storage backend for document content, addressed by the logical storage key saved on {@code Document}.
+ */
+public interface DocumentStore {
+
+    /**
+     * Copies the content to a staging area as-is, hashing and counting it in the same pass.
+     *
+     * @throws ContentTooLargeException as soon as more than {@code maxSizeBytes} have been read
+     */
+    default StagedContent stage(InputStream content, long maxSizeBytes) {
+        return stage(content, maxSizeBytes, 0, sample -> StorageCodec.NONE);
+    }
+
+    /**
+     * Copies the content to a staging area, hashing, counting and encoding it in the same pass. The codec
+     * is chosen from the first {@code sampleBytes} of the content, read before anything is written.
+     *
+     * @throws ContentTooLargeException as soon as more than {@code maxSizeBytes} have been read
+     */
+    StagedContent stage(InputStream content, long maxSizeBytes, int sampleBytes,
+                        Function<byte[], StorageCodec> codecForSample);
+
+    /**
+     * Moves staged content to its storage key. When {@code reuseExisting} is set and the key already holds
+     * content, the staged copy is discarded instead.
+     *
+     * @return whether a new file was written under the key
+     */
+    boolean commit(StagedContent staged, String storageKey, boolean reuseExisting);
+
+    /**
+     * Drops staged content that will not be committed.
+     */
+    void discard(StagedContent staged);
+
+    /**
+     * Resolves the file currently holding the content of a key, which may not exist.
+     */
+    Path resolve(String storageKey);
+
+    InputStream open(String storageKey) throws IOException;
+
+    void delete(String storageKey);
+
+    /**
+     * Moves the content of a key to its location in the current layout, if it is stored elsewhere.
+     *
+     * @return whether the content was moved
+     */
+    boolean relocate(String storageKey) throws IOException;
+}
@@ -0,0 +1,183 @@
+package fr.ecodeli.storage;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import org.jboss.logging.Logger;
+
+/**
+ * Stores documents on the local file system. Each key is placed under {@code shardDepth} levels of
+ * two-hex-digit directories derived from a hash of the key, so no directory grows beyond a bounded number
+ * of entries. Files written with another depth stay readable and can be moved with {@link #relocate}.
+ */
+@ApplicationScoped
+public class FileSystemDocumentStore implements DocumentStore {
+
+    private static final Logger LOG = Logger.getLogger(FileSystemDocumentStore.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SHARD_DEPTH = 4;
+
+    private final Path storageDirectory;
+    private final Path stagingDirectory;
+    private final int shardDepth;
+
+    @Inject
+    public FileSystemDocumentStore(DocumentStorageProperties config) {
+        if (config.shardDepth() < 0 || config.shardDepth() > MAX_SHARD_DEPTH) {
+            throw new IllegalStateException("app.documents.shard-depth must be between 0 and " + MAX_SHARD_DEPTH);
+        }
+        this.storageDirectory = Path.of(config.storagePath());
+        this.stagingDirectory = storageDirectory.resolve(".staging");
+        this.shardDepth = config.shardDepth();
+        try {
+            Files.createDirectories(stagingDirectory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create documents storage directory", e);
+        }
+    }
+
+    @Override
+    public StagedContent stage(InputStream content, long maxSizeBytes, int sampleBytes,
+                               Function<byte[], StorageCodec> codecForSample) {
+        var partial = stagingDirectory.resolve(UUID.randomUUID() + ".part");
+        var digest = newDigest();
+        StorageCodec codec;
+        long size;
+        try {
+            var sample = content.readNBytes(sampleBytes);
+            size = sample.length;
+            if (size > maxSizeBytes) {
+                throw new ContentTooLargeException(maxSizeBytes);
+            }
+            codec = codecForSample.apply(sample);
+            try (var out = codec.encode(Files.newOutputStream(partial))) {
+                digest.update(sample);
+                out.write(sample);
+                var buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSizeBytes) {
+                        throw new ContentTooLargeException(maxSizeBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            LOG.errorf(e, "Failed to stage uploaded document");
+            throw new IllegalStateException("Failed to store document", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(partial);
+            throw e;
+        }
+        return new StagedContent(partial, HexFormat.of().formatHex(digest.digest()), size, codec);
+    }
+
+    @Override
+    public boolean commit(StagedContent staged, String storageKey, boolean reuseExisting) {
+        var path = shardedPath(storageKey, shardDepth);
+        try {
+            if (reuseExisting && Files.exists(resolve(storageKey))) {
+                Files.delete(staged.path());
+                return false;
+            }
+            Files.createDirectories(path.getParent());
+            Files.move(staged.path(), path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            deleteQuietly(staged.path());
+            LOG.errorf(e, "Failed to write document %s", storageKey);
+            throw new IllegalStateException("Failed to store document", e);
+        }
+    }
+
+    @Override
+    public void discard(StagedContent staged) {
+        deleteQuietly(staged.path());
+    }
+
+    @Override
+    public Path resolve(String storageKey) {
+        var current = shardedPath(storageKey, shardDepth);
+        if (Files.exists(current)) {
+            return current;
+        }
+        for (int depth = 0; depth <= MAX_SHARD_DEPTH; depth++) {
+            if (depth == shardDepth) {
+                continue;
+            }
+            var candidate = shardedPath(storageKey, depth);
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public InputStream open(String storageKey) throws IOException {
+        return Files.newInputStream(resolve(storageKey));
+    }
+
+    @Override
+    public void delete(String storageKey) {
+        deleteQuietly(resolve(storageKey));
+    }
+
+    @Override
+    public boolean relocate(String storageKey) throws IOException {
+        var target = shardedPath(storageKey, shardDepth);
+        var source = resolve(storageKey);
+        if (source.equals(target) || !Files.exists(source)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    Path shardedPath(String storageKey, int depth) {
+        var logical = storageDirectory.resolve(storageKey);
+        if (depth == 0) {
+            return logical;
+        }
+        var crc = new CRC32();
+        crc.update(storageKey.getBytes(StandardCharsets.UTF_8));
+        var hash = "%08x".formatted(crc.getValue());
+        var directory = logical.getParent();
+        for (int level = 0; level < depth; level++) {
+            directory = directory.resolve(hash.substring(level * 2, level * 2 + 2));
+        }
+        return directory.resolve(logical.getFileName());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.warnf(e, "Failed to delete document file %s", path);
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
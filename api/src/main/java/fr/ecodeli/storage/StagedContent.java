@@ -0,0 +1,10 @@
+package fr.ecodeli.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Content written to the staging area, encoded with {@code codec}. The hash and size describe the raw
+ * content.
+ */
+public record StagedContent(Path path, String sha256, long sizeBytes, StorageCodec codec) {
+}
@@ -0,0 +1,42 @@
+package fr.ecodeli.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding applied to document content at rest. The HTTP content coding is used as the name, so encoded
+ * content can be sent as-is to clients accepting it.
+ */
+public enum StorageCodec {
+    NONE(null),
+    GZIP("gzip");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+
+    StorageCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    public OutputStream encode(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+        };
+    }
+
+    public InputStream decode(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+        };
+    }
+}
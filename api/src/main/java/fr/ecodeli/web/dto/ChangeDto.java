@@ -0,0 +1,16 @@
+package fr.ecodeli.web.dto;
+
+import fr.ecodeli.entity.ChangeOperation;
+import fr.ecodeli.entity.ChangeType;
+
+/**
+ * A changed entity: {@code data} holds its current representation for an upsert and is {@code null} for a
+ * deletion.
+ */
+public record ChangeDto(
+        ChangeType type,
+        long id,
+        ChangeOperation operation,
+        Object data
+) {
+}
@@ -0,0 +1,10 @@
+package fr.ecodeli.web.dto;
+
+import java.util.List;
+
+/**
+ * A delta since a sync cursor. Pass {@code cursor} back to get the next changes. When {@code reset} is set,
+ * the client must refetch its data in full before continuing from {@code cursor}.
+ */
+public record ChangesDto(List<ChangeDto> changes, String cursor, boolean hasMore, boolean reset) {
+}
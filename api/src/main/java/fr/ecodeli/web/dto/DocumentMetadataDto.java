@@ -1,5 +1,6 @@
 package fr.ecodeli.web.dto;
 
+import fr.ecodeli.entity.PreviewStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -12,6 +13,7 @@ public record DocumentMetadataDto(
         @NotNull Long sizeBytes,
         @NotBlank @Size(max = 64) String sha256,
         @NotNull OffsetDateTime createdAt,
-        @NotBlank @Size(max = 255) String storageKey
+        @NotBlank @Size(max = 255) String storageKey,
+        PreviewStatus previewStatus
 ) {
 }
@@ -0,0 +1,12 @@
+package fr.ecodeli.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.Set;
+
+public record DocumentShareDto(
+        @NotEmpty @Size(max = 500) Set<@NotNull Long> documentIds,
+        @NotEmpty @Size(max = 1000) Set<@NotNull Long> userIds
+) {
+}
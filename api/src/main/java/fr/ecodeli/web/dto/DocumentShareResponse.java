@@ -0,0 +1,6 @@
+package fr.ecodeli.web.dto;
+
+public record DocumentShareResponse(
+        long affected
+) {
+}
@@ -0,0 +1,9 @@
+package fr.ecodeli.web.dto;
+
+public record NearbyAddressDto(
+        Long addressId,
+        double latitude,
+        double longitude,
+        double distanceMeters
+) {
+}
@@ -0,0 +1,9 @@
+package fr.ecodeli.web.dto;
+
+import java.util.List;
+
+/**
+ * A page of results; pass {@code nextCursor} back as the {@code cursor} parameter to get the next one.
+ */
+public record PageDto<T>(List<T> items, String nextCursor) {
+}
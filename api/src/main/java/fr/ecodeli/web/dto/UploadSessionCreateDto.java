@@ -0,0 +1,14 @@
+package fr.ecodeli.web.dto;
+
+import fr.ecodeli.entity.DocumentType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+public record UploadSessionCreateDto(
+        @NotBlank @Size(max = 255) String fileName,
+        @NotBlank @Size(max = 128) String mimeType,
+        DocumentType type,
+        @PositiveOrZero Long totalSize
+) {
+}
@@ -0,0 +1,15 @@
+package fr.ecodeli.web.dto;
+
+import fr.ecodeli.entity.DocumentType;
+import java.time.OffsetDateTime;
+
+public record UploadSessionDto(
+        String id,
+        String fileName,
+        String mimeType,
+        DocumentType type,
+        Long totalSize,
+        long receivedBytes,
+        OffsetDateTime createdAt
+) {
+}
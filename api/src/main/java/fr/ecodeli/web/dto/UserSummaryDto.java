@@ -0,0 +1,15 @@
+package fr.ecodeli.web.dto;
+
+import fr.ecodeli.entity.AppUserStatus;
+import java.time.OffsetDateTime;
+
+public record UserSummaryDto(
+        Long id,
+        String keycloakUserId,
+        String email,
+        String phone,
+        AppUserStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+}
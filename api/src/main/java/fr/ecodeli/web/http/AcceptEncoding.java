@@ -0,0 +1,44 @@
+package fr.ecodeli.web.http;
+
+import java.util.Locale;
+
+/**
+ * Minimal {@code Accept-Encoding} matching, enough to decide whether stored encoded content can be sent
+ * without decoding it.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * @return whether the header lists the coding, or {@code *}, with a non-zero quality
+     */
+    public static boolean accepts(String header, String coding) {
+        if (header == null || coding == null) {
+            return false;
+        }
+        for (var element : header.split(",")) {
+            var parts = element.split(";");
+            var name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(coding) && !name.equals("*")) {
+                continue;
+            }
+            var acceptable = true;
+            for (int i = 1; i < parts.length; i++) {
+                var parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+            if (acceptable) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+package fr.ecodeli.web.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.server.spi.ServerHttpResponse;
+
+/**
+ * Copies a file region to the response with asynchronous reads into pooled buffers, one read at a time.
+ * Every step runs on the request's event loop; a read is only issued while the connection is writable, so
+ * a slow client holds the socket's write queue and one buffer, never a thread. Buffers go back to the pool
+ * once written to the socket. The reads themselves run on the given, bounded executor.
+ */
+final class AsyncFileTransfer implements CompletionHandler<Integer, ByteBuf> {
+
+    private static final Logger LOG = Logger.getLogger(AsyncFileTransfer.class);
+
+    private final AsynchronousFileChannel channel;
+    private final ServerHttpResponse response;
+    private final HttpServerResponse vertxResponse;
+    private final Context context;
+    private final int bufferSize;
+    private long position;
+    private long remaining;
+    private boolean reading;
+    private boolean closed;
+
+    private AsyncFileTransfer(AsynchronousFileChannel channel, AsyncPathPart part, ServerHttpResponse response,
+                              HttpServerResponse vertxResponse, Context context, int bufferSize) {
+        this.channel = channel;
+        this.response = response;
+        this.vertxResponse = vertxResponse;
+        this.context = context;
+        this.bufferSize = bufferSize;
+        this.position = part.offset();
+        this.remaining = part.count();
+    }
+
+    static void start(AsyncPathPart part, ServerHttpResponse response, HttpServerResponse vertxResponse,
+                      Context context, ExecutorService readExecutor, int bufferSize) throws IOException {
+        var channel = AsynchronousFileChannel.open(part.file(), Set.of(StandardOpenOption.READ), readExecutor);
+        var transfer = new AsyncFileTransfer(channel, part, response, vertxResponse, context, bufferSize);
+        // Registered before the first read is scheduled, so a client leaving in between is noticed
+        response.addCloseHandler(() -> context.runOnContext(ignored -> transfer.onClosed()));
+        context.runOnContext(ignored -> transfer.pump());
+    }
+
+    private void pump() {
+        if (closed || vertxResponse.closed()) {
+            closed = true;
+            closeChannel();
+            return;
+        }
+        if (remaining == 0) {
+            closeChannel();
+            vertxResponse.end();
+            return;
+        }
+        if (response.isWriteQueueFull()) {
+            response.addDrainHandler(this::pump);
+            return;
+        }
+        var length = (int) Math.min(bufferSize, remaining);
+        var buffer = PooledByteBufAllocator.DEFAULT.directBuffer(length, length);
+        reading = true;
+        channel.read(buffer.nioBuffer(0, length), position, buffer, this);
+    }
+
+    @Override
+    public void completed(Integer read, ByteBuf buffer) {
+        context.runOnContext(ignored -> onRead(read, buffer));
+    }
+
+    @Override
+    public void failed(Throwable failure, ByteBuf buffer) {
+        context.runOnContext(ignored -> {
+            reading = false;
+            buffer.release();
+            abort(failure);
+        });
+    }
+
+    /**
+     * {@code Buffer.buffer(ByteBuf)} is deprecated, but it is the only public way in Vert.x 4 to write a pooled
+     * buffer without copying it.
+     */
+    @SuppressWarnings("deprecation")
+    private void onRead(int read, ByteBuf buffer) {
+        reading = false;
+        if (closed) {
+            buffer.release();
+            closeChannel();
+            return;
+        }
+        if (read < 0) {
+            buffer.release();
+            abort(new EOFException("File shorter than the announced length"));
+            return;
+        }
+        buffer.writerIndex(read);
+        position += read;
+        remaining -= read;
+        vertxResponse.write(Buffer.buffer(buffer)).onComplete(ignored -> buffer.release());
+        pump();
+    }
+
+    private void onClosed() {
+        closed = true;
+        if (!reading) {
+            closeChannel();
+        }
+    }
+
+    /**
+     * The status line and part of the body may already be sent, so the only way to signal the failure is to
+     * reset the connection.
+     */
+    private void abort(Throwable failure) {
+        LOG.debugf(failure, "Aborting download at offset %d", position);
+        closeChannel();
+        response.reset();
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.debugf(e, "Failed to close download channel");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ecodeli.web.http;
+
+import java.nio.file.Path;
+
+/**
+ * A region of a file sent with asynchronous reads by {@link AsyncPathPartWriter}.
+ */
+public record AsyncPathPart(Path file, long offset, long count) {
+}
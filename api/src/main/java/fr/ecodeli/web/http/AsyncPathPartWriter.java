@@ -0,0 +1,97 @@
+package fr.ecodeli.web.http;
+
+import fr.ecodeli.config.DocumentStorageProperties;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.jboss.resteasy.reactive.server.core.ResteasyReactiveRequestContext;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+/**
+ * Sends an {@link AsyncPathPart} with an {@link AsyncFileTransfer}, falling back to a blocking copy when the
+ * Vert.x response or context is not available.
+ */
+@Provider
+@Produces(MediaType.WILDCARD)
+public class AsyncPathPartWriter implements ServerMessageBodyWriter<AsyncPathPart> {
+
+    private final Vertx vertx;
+    private final int bufferSize;
+    private final ExecutorService readExecutor;
+
+    @Inject
+    public AsyncPathPartWriter(Vertx vertx, DocumentStorageProperties config) {
+        this.vertx = vertx;
+        this.bufferSize = config.downloadBufferBytes();
+        this.readExecutor = Executors.newFixedThreadPool(config.downloadReadThreads(),
+                Thread.ofPlatform().daemon().name("document-download-read-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        readExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+                               MediaType mediaType) {
+        return AsyncPathPart.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return AsyncPathPart.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeResponse(AsyncPathPart part, Type genericType, ServerRequestContext context) throws IOException {
+        var response = context.serverResponse();
+        response.setResponseHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(part.count()));
+        var vertxResponse = context instanceof ResteasyReactiveRequestContext requestContext
+                ? requestContext.serverRequest().unwrap(HttpServerResponse.class)
+                : null;
+        if (vertxResponse == null) {
+            try (var output = context.getOrCreateOutputStream()) {
+                copy(part, output);
+            }
+            return;
+        }
+        var vertxContext = Vertx.currentContext();
+        AsyncFileTransfer.start(part, response, vertxResponse,
+                vertxContext == null ? vertx.getOrCreateContext() : vertxContext, readExecutor, bufferSize);
+    }
+
+    @Override
+    public void writeTo(AsyncPathPart part, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream output)
+            throws IOException {
+        copy(part, output);
+    }
+
+    private static void copy(AsyncPathPart part, OutputStream output) throws IOException {
+        try (var channel = FileChannel.open(part.file())) {
+            var target = Channels.newChannel(output);
+            var position = part.offset();
+            var end = part.offset() + part.count();
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+}
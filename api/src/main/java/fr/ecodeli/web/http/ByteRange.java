@@ -0,0 +1,108 @@
+package fr.ecodeli.web.http;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * An inclusive byte range resolved against a representation of known length.
+ */
+public record ByteRange(long start, long end) {
+
+    private static final String BYTES_UNIT = "bytes=";
+    private static final int MAX_RANGES = 16;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long total) {
+        return "bytes " + start + "-" + end + "/" + total;
+    }
+
+    /**
+     * Parses a {@code Range} header for a representation of {@code total} bytes.
+     *
+     * @return an empty optional when the header must be ignored (absent, malformed, not in bytes or with
+     * too many ranges), otherwise the satisfiable ranges, sorted and coalesced, which may be empty
+     */
+    public static Optional<List<ByteRange>> parse(String header, long total) {
+        if (header == null || !header.toLowerCase(Locale.ROOT).startsWith(BYTES_UNIT)) {
+            return Optional.empty();
+        }
+        var specs = header.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return Optional.empty();
+        }
+        var ranges = new ArrayList<ByteRange>(specs.length);
+        for (var spec : specs) {
+            var trimmed = spec.trim();
+            var dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return Optional.empty();
+            }
+            try {
+                var first = trimmed.substring(0, dash).trim();
+                var last = trimmed.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    var suffix = parseBound(last);
+                    if (suffix > 0 && total > 0) {
+                        ranges.add(new ByteRange(Math.max(0, total - suffix), total - 1));
+                    }
+                    continue;
+                }
+                var start = parseBound(first);
+                var end = last.isEmpty() ? Long.MAX_VALUE : parseBound(last);
+                if (end < start) {
+                    return Optional.empty();
+                }
+                if (start < total) {
+                    ranges.add(new ByteRange(start, Math.min(end, total - 1)));
+                }
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(coalesce(ranges));
+    }
+
+    /**
+     * Parses a range bound, which is only digits: signs, that {@link Long#parseLong} accepts, make the range
+     * malformed, so {@code bytes=--5} is ignored rather than unsatisfiable.
+     */
+    private static long parseBound(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a range bound: " + value);
+            }
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Sorts the ranges and merges those that overlap or touch, so no byte is sent twice and the parts of a
+     * {@code multipart/byteranges} body come in file order.
+     */
+    static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        var sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ByteRange::start));
+        var merged = new ArrayList<ByteRange>(sorted.size());
+        var current = sorted.get(0);
+        for (var range : sorted.subList(1, sorted.size())) {
+            if (range.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), range.end()));
+            } else {
+                merged.add(current);
+                current = range;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+}
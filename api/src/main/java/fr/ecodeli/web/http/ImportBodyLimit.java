@@ -0,0 +1,41 @@
+package fr.ecodeli.web.http;
+
+import fr.ecodeli.config.ImportProperties;
+import io.vertx.ext.web.Router;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Lets the NDJSON user import stream bodies up to {@code app.imports.max-body-bytes} while every other route
+ * keeps {@code quarkus.http.limits.max-body-size}. Quarkus rejects a declared {@code Content-Length} over the
+ * global limit before routing, so larger imports are sent with chunked transfer coding; their bytes are then
+ * counted against the import limit as the resource reads them.
+ */
+@ApplicationScoped
+public class ImportBodyLimit {
+
+    /**
+     * Routing context entry holding the number of body bytes the request input stream accepts.
+     */
+    private static final String MAX_REQUEST_SIZE = "io.quarkus.max-request-size";
+    private static final String IMPORT_PATH = "/api/v1/admin/imports/users";
+    /**
+     * Right after the global body limit handler, which runs at order -2 and sets the entry first.
+     */
+    private static final int ROUTE_ORDER = -1;
+
+    private final long maxBodyBytes;
+
+    @Inject
+    public ImportBodyLimit(ImportProperties config) {
+        this.maxBodyBytes = config.maxBodyBytes();
+    }
+
+    void register(@Observes Router router) {
+        router.post(IMPORT_PATH).order(ROUTE_ORDER).handler(context -> {
+            context.put(MAX_REQUEST_SIZE, maxBodyBytes);
+            context.next();
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package fr.ecodeli.web.http;
+
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes a {@code multipart/byteranges} body, transferring each part straight from the file channel. The
+ * ranges are expected sorted and without overlaps, as {@link ByteRange#parse} returns them.
+ */
+public class MultipartByteRanges implements StreamingOutput {
+
+    private final Path file;
+    private final long total;
+    private final String contentType;
+    private final List<ByteRange> ranges;
+    private final String boundary = UUID.randomUUID().toString();
+
+    public MultipartByteRanges(Path file, long total, String contentType, List<ByteRange> ranges) {
+        this.file = file;
+        this.total = total;
+        this.contentType = contentType;
+        this.ranges = ranges;
+    }
+
+    public String mediaType() {
+        return "multipart/byteranges; boundary=" + boundary;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        var target = Channels.newChannel(output);
+        try (var channel = FileChannel.open(file)) {
+            for (var range : ranges) {
+                output.write(("--" + boundary + "\r\n"
+                        + "Content-Type: " + contentType + "\r\n"
+                        + "Content-Range: " + range.contentRange(total) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                var position = range.start();
+                var remaining = range.length();
+                while (remaining > 0) {
+                    var sent = channel.transferTo(position, remaining, target);
+                    if (sent <= 0) {
+                        throw new IOException("Unexpected end of file " + file);
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+                output.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            output.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
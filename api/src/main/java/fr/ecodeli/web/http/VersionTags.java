@@ -0,0 +1,52 @@
+package fr.ecodeli.web.http;
+
+import jakarta.ws.rs.core.EntityTag;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity tags derived from optimistic-lock versions. A single entity is tagged with its version as a strong
+ * tag; an aggregate of several entities gets a weak tag hashed from their versions.
+ */
+public final class VersionTags {
+
+    private VersionTags() {
+    }
+
+    public static EntityTag of(long version) {
+        return new EntityTag(Long.toString(version));
+    }
+
+    public static EntityTag weakOf(long... parts) {
+        long hash = 1125899906842597L;
+        for (var part : parts) {
+            hash = 31 * hash + part;
+        }
+        return new EntityTag(Long.toHexString(hash), true);
+    }
+
+    /**
+     * Parses an {@code If-Match} header into the versions it accepts. Weak or unparsable tags never match
+     * under the strong comparison {@code If-Match} requires, so they are dropped.
+     *
+     * @return {@code null} when the header is absent or {@code *}, meaning any version is acceptable
+     */
+    public static Set<Long> ifMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        var versions = new HashSet<Long>();
+        for (var element : header.split(",")) {
+            var tag = element.trim();
+            if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException ignored) {
+                // not one of our tags, cannot match
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,160 @@
+package fr.ecodeli.web.resource;
+
+import fr.ecodeli.concurrency.DatabaseBound;
+import fr.ecodeli.search.AddressAutocompleteIndex;
+import fr.ecodeli.search.AddressField;
+import fr.ecodeli.search.AddressGeoIndex;
+import fr.ecodeli.search.AddressIndexMaintainer;
+import fr.ecodeli.search.GeoHit;
+import fr.ecodeli.search.Suggestion;
+import fr.ecodeli.security.CurrentUser;
+import fr.ecodeli.service.Page;
+import fr.ecodeli.service.ProvisionedUser;
+import fr.ecodeli.service.UserAddressService;
+import io.quarkus.security.Authenticated;
+import fr.ecodeli.web.dto.NearbyAddressDto;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Address searches served from in-memory indexes, without querying the database, except street line
+ * suggestions, which only come from the caller's own addresses. They answer 503 until the indexes have been
+ * loaded after startup.
+ */
+@Path("/api/v1/addresses")
+@Produces(MediaType.APPLICATION_JSON)
+@Authenticated
+public class AddressResource {
+
+    private static final double MAX_RADIUS_KM = 50;
+    private static final int MAX_RESULTS = 200;
+    private static final int MAX_NEAREST = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final AddressGeoIndex geoIndex;
+    private final AddressAutocompleteIndex autocompleteIndex;
+    private final AddressIndexMaintainer indexMaintainer;
+    private final UserAddressService userAddressService;
+    private final CurrentUser currentUser;
+
+    @Inject
+    public AddressResource(AddressGeoIndex geoIndex,
+                           AddressAutocompleteIndex autocompleteIndex,
+                           AddressIndexMaintainer indexMaintainer,
+                           UserAddressService userAddressService,
+                           CurrentUser currentUser) {
+        this.geoIndex = geoIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.indexMaintainer = indexMaintainer;
+        this.userAddressService = userAddressService;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Suggests distinct postal codes, cities or street lines starting with {@code q}, ignoring case and
+     * accents. Postal codes and cities come from every address; street lines only from the caller's own
+     * addresses, and also match from the start of any word.
+     */
+    @GET
+    @Path("/autocomplete")
+    @DatabaseBound
+    public List<Suggestion> autocomplete(@QueryParam("q") String query,
+                                         @QueryParam("field") @DefaultValue("city") String field,
+                                         @QueryParam("limit") @DefaultValue("10") int limit) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        requireInRange("limit", limit, MAX_SUGGESTIONS);
+        var addressField = switch (field) {
+            case "postalCode" -> AddressField.POSTAL_CODE;
+            case "city" -> AddressField.CITY;
+            case "line1" -> AddressField.LINE1;
+            default -> throw new BadRequestException("Unsupported field: " + field);
+        };
+        if (addressField == AddressField.LINE1) {
+            return AddressAutocompleteIndex.suggestLines(ownLines(), query, limit);
+        }
+        requireLoaded();
+        return autocompleteIndex.suggest(addressField, query, limit);
+    }
+
+    private List<String> ownLines() {
+        var userId = currentUser.get().map(ProvisionedUser::id).orElseThrow(NotFoundException::new);
+        return userAddressService.listByUserId(userId, null, Page.MAX_SIZE).items().stream()
+                .map(userAddress -> userAddress.getAddress().getLine1())
+                .toList();
+    }
+
+    /**
+     * Lists the addresses within {@code radiusKm} of a position, nearest first.
+     */
+    @GET
+    @Path("/nearby")
+    @RolesAllowed({"COURIER", "ADMIN"})
+    public List<NearbyAddressDto> nearby(@QueryParam("lat") Double latitude,
+                                         @QueryParam("lon") Double longitude,
+                                         @QueryParam("radiusKm") @DefaultValue("3") double radiusKm,
+                                         @QueryParam("limit") @DefaultValue("50") int limit) {
+        requirePosition(latitude, longitude);
+        requireInRange("radiusKm", radiusKm, MAX_RADIUS_KM);
+        requireInRange("limit", limit, MAX_RESULTS);
+        requireLoaded();
+        return toDto(geoIndex.withinRadius(latitude, longitude, radiusKm * 1000, limit));
+    }
+
+    /**
+     * Lists the {@code k} addresses nearest to a position, within {@code maxKm}.
+     */
+    @GET
+    @Path("/nearest")
+    @RolesAllowed({"COURIER", "ADMIN"})
+    public List<NearbyAddressDto> nearest(@QueryParam("lat") Double latitude,
+                                          @QueryParam("lon") Double longitude,
+                                          @QueryParam("k") @DefaultValue("10") int k,
+                                          @QueryParam("maxKm") @DefaultValue("10") double maxKm) {
+        requirePosition(latitude, longitude);
+        requireInRange("k", k, MAX_NEAREST);
+        requireInRange("maxKm", maxKm, MAX_RADIUS_KM);
+        requireLoaded();
+        return toDto(geoIndex.nearest(latitude, longitude, k, maxKm * 1000));
+    }
+
+    private void requireLoaded() {
+        if (!indexMaintainer.isLoaded()) {
+            throw new ServiceUnavailableException("Address indexes are loading", 5L);
+        }
+    }
+
+    private static void requirePosition(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            throw new BadRequestException("lat and lon are required");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Invalid position");
+        }
+    }
+
+    private static void requireInRange(String name, double value, double max) {
+        if (!(value > 0 && value <= max)) {
+            throw new BadRequestException(name + " must be greater than 0 and at most " + max);
+        }
+    }
+
+    private static List<NearbyAddressDto> toDto(List<GeoHit> hits) {
+        return hits.stream()
+                .map(hit -> new NearbyAddressDto(hit.addressId(), hit.latitude(), hit.longitude(),
+                        Math.round(hit.distanceMeters() * 10) / 10.0))
+                .toList();
+    }
+}
@@ -0,0 +1,125 @@
+package fr.ecodeli.web.resource;
+
+import fr.ecodeli.concurrency.DatabaseBound;
+import fr.ecodeli.entity.AppUserStatus;
+import fr.ecodeli.mapper.AddressMapper;
+import fr.ecodeli.mapper.UserMapper;
+import fr.ecodeli.mapper.UserProfileMapper;
+import fr.ecodeli.service.AddressService;
+import fr.ecodeli.service.AppUserService;
+import fr.ecodeli.service.Page;
+import fr.ecodeli.service.ImportReport;
+import fr.ecodeli.service.UserImportService;
+import fr.ecodeli.service.UserProfileService;
+import fr.ecodeli.web.dto.AddressDto;
+import fr.ecodeli.web.dto.PageDto;
+import fr.ecodeli.web.dto.UserProfileDto;
+import fr.ecodeli.web.dto.UserSummaryDto;
+import fr.ecodeli.web.http.ImportBodyLimit;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import java.io.InputStream;
+
+/**
+ * Back-office listings. Every listing is keyset-paginated: pass the {@code nextCursor} of a page as
+ * {@code cursor} to get the next one, with the same filters and sort.
+ */
+@Path("/api/v1/admin")
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed("ADMIN")
+@DatabaseBound
+public class AdminResource {
+
+    private final AppUserService appUserService;
+    private final AddressService addressService;
+    private final UserProfileService userProfileService;
+    private final UserImportService userImportService;
+    private final UserMapper userMapper;
+    private final AddressMapper addressMapper;
+    private final UserProfileMapper userProfileMapper;
+
+    @Inject
+    public AdminResource(AppUserService appUserService,
+                         AddressService addressService,
+                         UserProfileService userProfileService,
+                         UserImportService userImportService,
+                         UserMapper userMapper,
+                         AddressMapper addressMapper,
+                         UserProfileMapper userProfileMapper) {
+        this.appUserService = appUserService;
+        this.addressService = addressService;
+        this.userProfileService = userProfileService;
+        this.userImportService = userImportService;
+        this.userMapper = userMapper;
+        this.addressMapper = addressMapper;
+        this.userProfileMapper = userProfileMapper;
+    }
+
+    @GET
+    @Path("/users")
+    public PageDto<UserSummaryDto> listUsers(@QueryParam("status") AppUserStatus status,
+                                             @QueryParam("email") String emailPrefix,
+                                             @QueryParam("sort") @DefaultValue("id") String sort,
+                                             @QueryParam("cursor") String cursor,
+                                             @QueryParam("size") Integer size) {
+        var byEmail = sortedBy(sort, "email");
+        return toDto(appUserService.list(status, emailPrefix, byEmail, cursor, size).map(userMapper::toSummaryDto));
+    }
+
+    @GET
+    @Path("/addresses")
+    public PageDto<AddressDto> listAddresses(@QueryParam("postalCode") String postalCodePrefix,
+                                             @QueryParam("city") String city,
+                                             @QueryParam("countryCode") String countryCode,
+                                             @QueryParam("sort") @DefaultValue("id") String sort,
+                                             @QueryParam("cursor") String cursor,
+                                             @QueryParam("size") Integer size) {
+        var byPostalCode = sortedBy(sort, "postalCode");
+        var page = addressService.list(postalCodePrefix, city, countryCode, byPostalCode, cursor, size);
+        return toDto(page.map(addressMapper::toDto));
+    }
+
+    @GET
+    @Path("/profiles")
+    public PageDto<UserProfileDto> listProfiles(@QueryParam("lastName") String lastNamePrefix,
+                                                @QueryParam("cursor") String cursor,
+                                                @QueryParam("size") Integer size) {
+        return toDto(userProfileService.list(lastNamePrefix, cursor, size).map(userProfileMapper::toDto));
+    }
+
+    /**
+     * Imports users, profiles and addresses from an NDJSON body, streamed line by line. Rows that are invalid
+     * or whose user already exists are reported in the response; the others are imported. Bodies larger than
+     * the global HTTP limit, up to {@code app.imports.max-body-bytes}, must be sent with chunked transfer
+     * coding, see {@link ImportBodyLimit}.
+     */
+    @POST
+    @Path("/imports/users")
+    @Consumes("application/x-ndjson")
+    public ImportReport importUsers(InputStream body) {
+        return userImportService.importNdjson(body);
+    }
+
+    private boolean sortedBy(String sort, String key) {
+        if (sort.equals("id")) {
+            return false;
+        }
+        if (sort.equals(key)) {
+            return true;
+        }
+        throw new BadRequestException("Unsupported sort: " + sort);
+    }
+
+    private <T> PageDto<T> toDto(Page<T> page) {
+        return new PageDto<>(page.items(), page.nextCursor());
+    }
+}
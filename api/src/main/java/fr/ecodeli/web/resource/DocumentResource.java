@@ -1,43 +1,74 @@
 package fr.ecodeli.web.resource;
 
-import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.concurrency.DatabaseBound;
+import fr.ecodeli.config.DocumentStorageProperties;
+import fr.ecodeli.entity.Document;
 import fr.ecodeli.entity.DocumentType;
 import fr.ecodeli.mapper.DocumentMapper;
-import fr.ecodeli.service.AppUserService;
+import fr.ecodeli.metrics.DocumentMetrics;
+import fr.ecodeli.security.CurrentUser;
 import fr.ecodeli.service.DocumentService;
+import fr.ecodeli.service.DocumentSnapshot;
+import fr.ecodeli.service.ProvisionedUser;
 import fr.ecodeli.web.dto.DocumentMetadataDto;
+import fr.ecodeli.web.dto.DocumentShareDto;
+import fr.ecodeli.web.dto.DocumentShareResponse;
 import fr.ecodeli.web.dto.DocumentUploadForm;
 import fr.ecodeli.web.dto.DocumentUploadResponse;
+import fr.ecodeli.storage.StorageCodec;
+import fr.ecodeli.web.http.AcceptEncoding;
+import fr.ecodeli.web.http.AsyncPathPart;
+import fr.ecodeli.web.http.ByteRange;
+import fr.ecodeli.web.http.MultipartByteRanges;
 import io.quarkus.security.Authenticated;
-import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import org.jboss.resteasy.reactive.multipart.FileUpload;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.jboss.resteasy.reactive.PathPart;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
 
 @Path("/api/v1/documents")
 @Authenticated
+@RunOnVirtualThread
+@DatabaseBound
 public class DocumentResource {
 
+    private static final CacheControl DOWNLOAD_CACHE_CONTROL = downloadCacheControl();
+    private static final CacheControl PREVIEW_CACHE_CONTROL = previewCacheControl();
+
     private final DocumentService documentService;
     private final DocumentMapper documentMapper;
-    private final AppUserService appUserService;
-    private final SecurityIdentity identity;
+    private final CurrentUser currentUser;
+    private final DocumentMetrics documentMetrics;
+    private final boolean asyncDownload;
 
     @Inject
     public DocumentResource(DocumentService documentService,
                             DocumentMapper documentMapper,
-                            AppUserService appUserService,
-                            SecurityIdentity identity) {
+                            CurrentUser currentUser,
+                            DocumentMetrics documentMetrics,
+                            DocumentStorageProperties config) {
         this.documentService = documentService;
         this.documentMapper = documentMapper;
-        this.appUserService = appUserService;
-        this.identity = identity;
+        this.currentUser = currentUser;
+        this.documentMetrics = documentMetrics;
+        this.asyncDownload = config.asyncDownload();
     }
 
     @POST
@@ -49,46 +80,227 @@ public class DocumentResource {
         if (file == null || file.fileName() == null) {
             throw new BadRequestException("Missing file");
         }
-        var content = readBytes(file);
         var type = form.type == null ? DocumentType.OTHER : form.type;
-        var document = documentService.store(content, form.fileName, form.mimeType, user.getId(), type);
+        Document document;
+        try (var content = Files.newInputStream(file.uploadedFile())) {
+            document = documentService.store(content, form.fileName, form.mimeType, user.id(), type);
+        } catch (IOException e) {
+            throw new BadRequestException("Unable to read uploaded file", e);
+        }
         var dto = new DocumentUploadResponse(documentMapper.toDto(document));
         return Response.status(Response.Status.CREATED).entity(dto).build();
     }
 
+    @POST
+    @Path("/shares")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public DocumentShareResponse share(@Valid DocumentShareDto payload) {
+        var user = currentUser();
+        return new DocumentShareResponse(
+                documentService.shareAll(payload.documentIds(), payload.userIds(), user.id()));
+    }
+
+    @POST
+    @Path("/shares/revoke")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public DocumentShareResponse revoke(@Valid DocumentShareDto payload) {
+        var user = currentUser();
+        return new DocumentShareResponse(
+                documentService.revokeAll(payload.documentIds(), payload.userIds(), user.id()));
+    }
+
+    /**
+     * Streams every readable document matching the filter as a ZIP archive, without staging it on disk.
+     * The {@code to} date is inclusive.
+     */
+    @GET
+    @Path("/export")
+    @Produces("application/zip")
+    public Response export(@QueryParam("type") DocumentType type,
+                           @QueryParam("from") LocalDate from,
+                           @QueryParam("to") LocalDate to) {
+        var user = currentUser();
+        var zone = ZoneId.systemDefault();
+        var documents = documentService.listExportable(user.id(), type,
+                from == null ? null : from.atStartOfDay(zone).toOffsetDateTime(),
+                to == null ? null : to.plusDays(1).atStartOfDay(zone).toOffsetDateTime());
+        StreamingOutput archive = output -> documentService.writeArchive(documents, output);
+        return Response.ok(archive)
+                .header("Content-Disposition", "attachment; filename=\"documents.zip\"")
+                .build();
+    }
+
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
     public DocumentMetadataDto metadata(@PathParam("id") Long id) {
         var user = currentUser();
-        var document = documentService.getMetadata(id, user.getId());
+        var document = documentService.getMetadata(id, user.id());
         return documentMapper.toDto(document);
     }
 
+    @DELETE
+    @Path("/{id}")
+    public void delete(@PathParam("id") Long id) {
+        documentService.delete(id, currentUser().id());
+    }
+
+    /**
+     * Serves the document with zero-copy file transfers. The SHA-256 is used as a strong ETag, so a matching
+     * {@code If-None-Match} is answered with {@code 304} before the file is looked up, and {@code Range}
+     * requests are answered with {@code 206} single or {@code multipart/byteranges} responses. Documents
+     * stored compressed are sent without decoding when the client accepts their coding, and decoded on the
+     * fly otherwise; ranges are not supported for them.
+     */
     @GET
     @Path("/{id}/download")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
-    public Response download(@PathParam("id") Long id) {
+    public Response download(@PathParam("id") Long id,
+                             @Context Request request,
+                             @Context RoutingContext routingContext,
+                             @HeaderParam("Range") String range,
+                             @HeaderParam("If-Range") String ifRange,
+                             @HeaderParam("Accept-Encoding") String acceptEncoding) {
         var user = currentUser();
-        var document = documentService.requireAccess(id, user.getId());
-        var stream = documentService.openStream(document);
-        return Response.ok(stream)
-                .type(document.getMimeType())
-                .header("Content-Disposition", "attachment; filename=\"" + document.getFileName() + "\"")
+        var document = documentService.requireAccess(id, user.id());
+        var codec = document.storageCodec();
+        var passThrough = codec != StorageCodec.NONE
+                && AcceptEncoding.accepts(acceptEncoding, codec.contentEncoding());
+        var etag = new EntityTag(passThrough
+                ? document.sha256() + "-" + codec.contentEncoding()
+                : document.sha256());
+        var notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(DOWNLOAD_CACHE_CONTROL).build();
+        }
+        if (codec != StorageCodec.NONE) {
+            countDownloaded(routingContext, document.type());
+            return downloadEncoded(document, passThrough)
+                    .tag(etag)
+                    .cacheControl(DOWNLOAD_CACHE_CONTROL)
+                    .header("Vary", "Accept-Encoding")
+                    .header("Accept-Ranges", "none")
+                    .header("Content-Disposition", "attachment; filename=\"" + document.fileName() + "\"")
+                    .build();
+        }
+
+        var path = documentService.contentPath(document);
+        var total = sizeOf(path);
+        var ranges = ifRange == null || ifRange.equals(etag.toString())
+                ? ByteRange.parse(range, total)
+                : Optional.<List<ByteRange>>empty();
+
+        Response.ResponseBuilder builder;
+        if (ranges.isEmpty()) {
+            countDownloaded(routingContext, document.type());
+            builder = Response.ok(filePart(path, 0, total), document.mimeType());
+        } else if (ranges.get().isEmpty()) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + total)
+                    .build();
+        } else if (ranges.get().size() == 1) {
+            var single = ranges.get().get(0);
+            countDownloaded(routingContext, document.type());
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(filePart(path, single.start(), single.length()))
+                    .type(document.mimeType())
+                    .header("Content-Range", single.contentRange(total));
+        } else {
+            var multipart = new MultipartByteRanges(path, total, document.mimeType(), ranges.get());
+            countDownloaded(routingContext, document.type());
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(multipart)
+                    .type(multipart.mediaType());
+        }
+        return builder
+                .tag(etag)
+                .cacheControl(DOWNLOAD_CACHE_CONTROL)
+                .header("Accept-Ranges", "bytes")
+                .header("Content-Disposition", "attachment; filename=\"" + document.fileName() + "\"")
+                .build();
+    }
+
+    private Response.ResponseBuilder downloadEncoded(DocumentSnapshot document, boolean passThrough) {
+        if (passThrough) {
+            var path = documentService.contentPath(document);
+            var size = sizeOf(path);
+            return Response.ok(filePart(path, 0, size), document.mimeType())
+                    .header("Content-Encoding", document.storageCodec().contentEncoding());
+        }
+        var content = documentService.openStream(document);
+        StreamingOutput decoded = output -> {
+            try (content) {
+                content.transferTo(output);
+            }
+        };
+        return Response.ok(decoded, document.mimeType());
+    }
+
+    /**
+     * Counts the body bytes actually written once the response ends, so that aborted and partial transfers are
+     * not counted for their full length.
+     */
+    private void countDownloaded(RoutingContext routingContext, DocumentType type) {
+        routingContext.addEndHandler(ended ->
+                documentMetrics.downloaded(type, routingContext.response().bytesWritten()));
+    }
+
+    /**
+     * The stored bytes of a download, sent with asynchronous file reads unless disabled by configuration.
+     */
+    private Object filePart(java.nio.file.Path path, long offset, long count) {
+        return asyncDownload ? new AsyncPathPart(path, offset, count) : new PathPart(path, offset, count);
+    }
+
+    /**
+     * Serves the JPEG preview of an image or PDF. A document's content never changes, so the preview can be
+     * cached by the browser for a year.
+     */
+    @GET
+    @Path("/{id}/preview")
+    @Produces("image/jpeg")
+    public Response preview(@PathParam("id") Long id, @Context Request request) {
+        var user = currentUser();
+        var document = documentService.requireAccess(id, user.id());
+        var etag = new EntityTag(document.sha256() + "-preview");
+        var notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(PREVIEW_CACHE_CONTROL).build();
+        }
+        var path = documentService.previewPath(document);
+        return Response.ok(new PathPart(path, 0, sizeOf(path)), "image/jpeg")
+                .tag(etag)
+                .cacheControl(PREVIEW_CACHE_CONTROL)
                 .build();
     }
 
-    private AppUser currentUser() {
-        var email = identity.getPrincipal().getName();
-        return appUserService.findByEmail(email)
+    private static CacheControl downloadCacheControl() {
+        var cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        cacheControl.setNoTransform(true);
+        return cacheControl;
+    }
+
+    private static CacheControl previewCacheControl() {
+        var cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setMaxAge((int) Duration.ofDays(365).toSeconds());
+        return cacheControl;
+    }
+
+    private ProvisionedUser currentUser() {
+        return currentUser.get()
                 .orElseThrow(() -> new BadRequestException("User not found"));
     }
 
-    private byte[] readBytes(FileUpload file) {
+    private long sizeOf(java.nio.file.Path path) {
         try {
-            return Files.readAllBytes(file.uploadedFile());
+            return Files.size(path);
         } catch (IOException e) {
-            throw new BadRequestException("Unable to read uploaded file", e);
+            throw new NotFoundException("Document content unavailable");
         }
     }
 }
@@ -0,0 +1,113 @@
+package fr.ecodeli.web.resource;
+
+import fr.ecodeli.concurrency.DatabaseBound;
+import fr.ecodeli.mapper.DocumentMapper;
+import fr.ecodeli.security.CurrentUser;
+import fr.ecodeli.service.ProvisionedUser;
+import fr.ecodeli.service.UploadSession;
+import fr.ecodeli.service.UploadSessionService;
+import fr.ecodeli.web.dto.DocumentUploadResponse;
+import fr.ecodeli.web.dto.UploadSessionCreateDto;
+import fr.ecodeli.web.dto.UploadSessionDto;
+import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Resumable upload protocol: create a session, {@code PUT} chunks at the offset reported by the server,
+ * query that offset after a dropped connection, then complete the session to create the document.
+ */
+@Path("/api/v1/documents/uploads")
+@Authenticated
+@RunOnVirtualThread
+public class DocumentUploadResource {
+
+    private final UploadSessionService uploadSessionService;
+    private final DocumentMapper documentMapper;
+    private final CurrentUser currentUser;
+
+    @Inject
+    public DocumentUploadResource(UploadSessionService uploadSessionService,
+                                  DocumentMapper documentMapper,
+                                  CurrentUser currentUser) {
+        this.uploadSessionService = uploadSessionService;
+        this.documentMapper = documentMapper;
+        this.currentUser = currentUser;
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response create(@Valid UploadSessionCreateDto payload) {
+        var user = currentUser();
+        var session = uploadSessionService.create(user.id(), payload.fileName(), payload.mimeType(),
+                payload.type(), payload.totalSize());
+        return withOffset(Response.created(URI.create("/api/v1/documents/uploads/" + session.id())), session);
+    }
+
+    @GET
+    @Path("/{sessionId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response status(@PathParam("sessionId") String sessionId) {
+        var session = uploadSessionService.get(sessionId, currentUser().id());
+        return withOffset(Response.ok(), session);
+    }
+
+    @PUT
+    @Path("/{sessionId}")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response append(@PathParam("sessionId") String sessionId,
+                           @HeaderParam(UploadSessionService.OFFSET_HEADER) Long offset,
+                           InputStream chunk) {
+        if (offset == null || offset < 0) {
+            throw new BadRequestException("Missing " + UploadSessionService.OFFSET_HEADER + " header");
+        }
+        var session = uploadSessionService.append(sessionId, currentUser().id(), offset, chunk);
+        return withOffset(Response.ok(), session);
+    }
+
+    @POST
+    @Path("/{sessionId}/complete")
+    @Produces(MediaType.APPLICATION_JSON)
+    @DatabaseBound
+    public Response complete(@PathParam("sessionId") String sessionId) {
+        var document = uploadSessionService.complete(sessionId, currentUser().id());
+        var dto = new DocumentUploadResponse(documentMapper.toDto(document));
+        return Response.status(Response.Status.CREATED).entity(dto).build();
+    }
+
+    @DELETE
+    @Path("/{sessionId}")
+    public void abort(@PathParam("sessionId") String sessionId) {
+        uploadSessionService.abort(sessionId, currentUser().id());
+    }
+
+    private Response withOffset(Response.ResponseBuilder builder, UploadSession session) {
+        var dto = new UploadSessionDto(session.id(), session.fileName(), session.mimeType(), session.type(),
+                session.totalSize(), session.receivedBytes(), session.createdAt());
+        return builder.entity(dto)
+                .header(UploadSessionService.OFFSET_HEADER, session.receivedBytes())
+                .build();
+    }
+
+    private ProvisionedUser currentUser() {
+        return currentUser.get()
+                .orElseThrow(() -> new BadRequestException("User not found"));
+    }
+}
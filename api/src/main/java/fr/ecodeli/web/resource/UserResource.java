@@ -1,105 +1,169 @@
 package fr.ecodeli.web.resource;
 
+import fr.ecodeli.concurrency.DatabaseBound;
 import fr.ecodeli.entity.AppUser;
+import fr.ecodeli.entity.Document;
+import fr.ecodeli.entity.UserProfile;
+import fr.ecodeli.entity.UserAddress;
 import fr.ecodeli.entity.UserAddressId;
 import fr.ecodeli.mapper.AddressMapper;
+import fr.ecodeli.mapper.DocumentMapper;
 import fr.ecodeli.mapper.UserAddressMapper;
 import fr.ecodeli.mapper.UserMapper;
 import fr.ecodeli.mapper.UserProfileMapper;
+import fr.ecodeli.security.CurrentUser;
 import fr.ecodeli.service.AddressService;
 import fr.ecodeli.service.AppUserService;
+import fr.ecodeli.service.ProvisionedUser;
+import fr.ecodeli.service.SyncService;
 import fr.ecodeli.service.UserAddressService;
 import fr.ecodeli.service.UserProfileService;
 import fr.ecodeli.web.dto.AddressDto;
+import fr.ecodeli.web.dto.ChangeDto;
+import fr.ecodeli.web.dto.ChangesDto;
+import fr.ecodeli.web.dto.PageDto;
 import fr.ecodeli.web.dto.UserAddressDto;
 import fr.ecodeli.web.dto.UserDto;
 import fr.ecodeli.web.dto.UserProfileDto;
+import fr.ecodeli.web.http.VersionTags;
 import io.quarkus.security.Authenticated;
-import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Path("/api/v1/users")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Authenticated
+@RunOnVirtualThread
+@DatabaseBound
 public class UserResource {
 
-    private final SecurityIdentity identity;
+    private final CurrentUser currentUser;
     private final AppUserService appUserService;
     private final UserProfileService userProfileService;
     private final AddressService addressService;
     private final UserAddressService userAddressService;
+    private final SyncService syncService;
     private final UserMapper userMapper;
     private final UserProfileMapper userProfileMapper;
     private final AddressMapper addressMapper;
     private final UserAddressMapper userAddressMapper;
+    private final DocumentMapper documentMapper;
 
     @Inject
-    public UserResource(SecurityIdentity identity,
+    public UserResource(CurrentUser currentUser,
                         AppUserService appUserService,
                         UserProfileService userProfileService,
                         AddressService addressService,
                         UserAddressService userAddressService,
+                        SyncService syncService,
                         UserMapper userMapper,
                         UserProfileMapper userProfileMapper,
                         AddressMapper addressMapper,
-                        UserAddressMapper userAddressMapper) {
-        this.identity = identity;
+                        UserAddressMapper userAddressMapper,
+                        DocumentMapper documentMapper) {
+        this.currentUser = currentUser;
         this.appUserService = appUserService;
         this.userProfileService = userProfileService;
         this.addressService = addressService;
         this.userAddressService = userAddressService;
+        this.syncService = syncService;
         this.userMapper = userMapper;
         this.userProfileMapper = userProfileMapper;
         this.addressMapper = addressMapper;
         this.userAddressMapper = userAddressMapper;
+        this.documentMapper = documentMapper;
+    }
+
+    private Long currentUserId() {
+        return currentUser.get()
+                .map(ProvisionedUser::id)
+                .orElseThrow(NotFoundException::new);
     }
 
     private AppUser currentUser() {
-        return appUserService.findByEmail(identity.getPrincipal().getName())
+        return appUserService.findById(currentUserId())
                 .orElseThrow(NotFoundException::new);
     }
 
+    /**
+     * Returns the caller with profile and addresses, tagged with a weak ETag over all their versions.
+     */
     @GET
     @Path("/me")
-    public UserDto me() {
-        return userMapper.toDto(currentUser());
+    public Response me(@Context Request request) {
+        var user = appUserService.findWithDetails(currentUserId()).orElseThrow(NotFoundException::new);
+        var profile = user.getProfile();
+        var tag = versionsTag(user.getAddresses(), user.getVersion(), profile == null ? -1 : profile.getVersion());
+        return conditional(request, tag, () -> userMapper.toDto(user));
+    }
+
+    /**
+     * Returns what changed in the caller's user, profile, addresses and readable documents since
+     * {@code cursor}. Call it without a cursor, then refetch in full, to start syncing.
+     */
+    @GET
+    @Path("/me/changes")
+    public ChangesDto changes(@QueryParam("cursor") String cursor) {
+        var delta = syncService.changesSince(currentUserId(), cursor);
+        var changes = delta.changes().stream()
+                .map(change -> new ChangeDto(change.type(), change.id(), change.operation(), toDto(change.state())))
+                .toList();
+        return new ChangesDto(changes, delta.cursor(), delta.hasMore(), delta.reset());
     }
 
     @GET
     @Path("/me/profile")
-    public UserProfileDto getProfile() {
-        return userProfileMapper.toDto(userProfileService.getRequired(currentUser().getId()));
+    public Response getProfile(@Context Request request) {
+        var profile = userProfileService.getRequired(currentUserId());
+        return conditional(request, VersionTags.of(profile.getVersion()), () -> userProfileMapper.toDto(profile));
     }
 
+    /**
+     * Saves the profile. With {@code If-Match}, the save only applies to the tagged version and fails with
+     * 412 if the profile changed meanwhile.
+     */
     @PATCH
     @Path("/me/profile")
-    public UserProfileDto updateProfile(@Valid UserProfileDto payload) {
-        var saved = userProfileService.saveForUser(currentUser(), userProfileMapper.toEntity(payload));
-        return userProfileMapper.toDto(saved);
+    public Response updateProfile(@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, @Valid UserProfileDto payload) {
+        var saved = userProfileService.saveForUser(currentUser(), userProfileMapper.toEntity(payload),
+                VersionTags.ifMatch(ifMatch));
+        return Response.ok(userProfileMapper.toDto(saved)).tag(VersionTags.of(saved.getVersion())).build();
     }
 
+    /**
+     * Returns a page of the caller's addresses; pass {@code nextCursor} back as {@code cursor} for the next.
+     */
     @GET
     @Path("/me/addresses")
-    public List<UserAddressDto> listAddresses() {
-        var user = currentUser();
-        return userAddressService.listByUserId(user.getId()).stream()
-                .map(userAddressMapper::toDto)
-                .toList();
+    public Response listAddresses(@QueryParam("cursor") String cursor,
+                                  @QueryParam("size") Integer size,
+                                  @Context Request request) {
+        var page = userAddressService.listByUserId(currentUserId(), cursor, size);
+        return conditional(request, versionsTag(page.items()), () -> new PageDto<>(
+                page.items().stream().map(userAddressMapper::toDto).toList(), page.nextCursor()));
     }
 
     @POST
@@ -112,18 +176,53 @@ public class UserResource {
 
     @PATCH
     @Path("/me/addresses/{addressId}")
-    public AddressDto updateAddress(@PathParam("addressId") Long addressId, @Valid AddressDto payload) {
-        var user = currentUser();
-        userAddressService.ensureOwnership(user, addressId);
-        var updated = addressService.update(addressId, addressMapper.toEntity(payload));
-        return addressMapper.toDto(updated);
+    public Response updateAddress(@PathParam("addressId") Long addressId,
+                                  @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                  @Valid AddressDto payload) {
+        userAddressService.ensureOwnership(currentUserId(), addressId);
+        var updated = addressService.update(addressId, addressMapper.toEntity(payload), VersionTags.ifMatch(ifMatch));
+        return Response.ok(addressMapper.toDto(updated)).tag(VersionTags.of(updated.getVersion())).build();
     }
 
     @DELETE
     @Path("/me/addresses/{addressId}")
     public void deleteAddress(@PathParam("addressId") Long addressId) {
-        var user = currentUser();
-        userAddressService.ensureOwnership(user, addressId);
-        userAddressService.delete(new UserAddressId(user.getId(), addressId));
+        var userId = currentUserId();
+        userAddressService.ensureOwnership(userId, addressId);
+        userAddressService.delete(new UserAddressId(userId, addressId));
+    }
+
+    private Object toDto(Object state) {
+        return switch (state) {
+            case null -> null;
+            case AppUser user -> userMapper.toSummaryDto(user);
+            case UserProfile profile -> userProfileMapper.toDto(profile);
+            case UserAddress userAddress -> userAddressMapper.toDto(userAddress);
+            case Document document -> documentMapper.toDto(document);
+            default -> throw new IllegalStateException("Unexpected change state " + state.getClass());
+        };
+    }
+
+    /**
+     * Answers 304 when the request's {@code If-None-Match} matches {@code tag}, and the body otherwise.
+     */
+    private static Response conditional(Request request, EntityTag tag, Supplier<?> body) {
+        var notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(body.get()).tag(tag).build();
+    }
+
+    private static EntityTag versionsTag(List<UserAddress> addresses, long... leading) {
+        var parts = new long[leading.length + addresses.size() * 3];
+        System.arraycopy(leading, 0, parts, 0, leading.length);
+        var next = leading.length;
+        for (var userAddress : addresses) {
+            parts[next++] = userAddress.getAddress().getId();
+            parts[next++] = userAddress.getAddress().getVersion();
+            parts[next++] = userAddress.isDefault() ? 1 : 0;
+        }
+        return VersionTags.weakOf(parts);
     }
 }
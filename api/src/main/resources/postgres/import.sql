@@ -1,23 +1,23 @@
 -- EcoDeli MVP V1 - PostgreSQL
 -- Seed data : le schéma est géré via Hibernate ORM.
 
-INSERT INTO app_user (id, keycloak_user_id, email, phone, status, created_at, updated_at)
-VALUES (10001, 'kc-admin-001', 'admin@ecodeli.local', NULL, 'ACTIVE', now(), now()),
-       (10002, 'kc-client-001', 'client@ecodeli.local', '0600000002', 'ACTIVE', now(), now()),
-       (10003, 'kc-courier-001', 'livreur@ecodeli.local', '0600000003', 'ACTIVE', now(), now()),
-       (10004, 'kc-merchant-001', 'merchant@ecodeli.local', '0600000004', 'ACTIVE', now(), now())
-ON CONFLICT (id) DO NOTHING;
-
-INSERT INTO user_profile (user_id, first_name, last_name, birth_date, default_language, tutorial_shown_at, tutorial_completed_at)
-VALUES (10001, 'Ada', 'Admin', '1990-01-01', 'fr', now(), now()),
-       (10002, 'Clara', 'Client', '1998-05-12', 'fr', now(), now()),
-       (10003, 'Liam', 'Livreur', '1995-09-20', 'fr', now(), NULL),
-       (10004, 'Max', 'Marchand', '1988-03-03', 'fr', now(), now())
+INSERT INTO app_user (id, keycloak_user_id, email, phone, status, created_at, updated_at, version)
+VALUES (10001, 'kc-admin-001', 'admin@ecodeli.local', NULL, 'ACTIVE', now(), now(), 0),
+       (10002, 'kc-client-001', 'client@ecodeli.local', '0600000002', 'ACTIVE', now(), now(), 0),
+       (10003, 'kc-courier-001', 'livreur@ecodeli.local', '0600000003', 'ACTIVE', now(), now(), 0),
+       (10004, 'kc-merchant-001', 'merchant@ecodeli.local', '0600000004', 'ACTIVE', now(), now(), 0)
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO user_profile (user_id, first_name, last_name, birth_date, default_language, tutorial_shown_at, tutorial_completed_at, version)
+VALUES (10001, 'Ada', 'Admin', '1990-01-01', 'fr', now(), now(), 0),
+       (10002, 'Clara', 'Client', '1998-05-12', 'fr', now(), now(), 0),
+       (10003, 'Liam', 'Livreur', '1995-09-20', 'fr', now(), NULL, 0),
+       (10004, 'Max', 'Marchand', '1988-03-03', 'fr', now(), now(), 0)
 ON CONFLICT (user_id) DO NOTHING;
 
-INSERT INTO address (id, label, line1, line2, postal_code, city, country_code, latitude, longitude)
-VALUES (101, 'Départ', '10 Rue de Paris', NULL, '75001', 'Paris', 'FR', 48.8566000, 2.3522000),
-       (102, 'Arrivée', '20 Rue de Marseille', NULL, '13001', 'Marseille', 'FR', 43.2965000, 5.3698000)
+INSERT INTO address (id, label, line1, line2, postal_code, city, country_code, latitude, longitude, version)
+VALUES (101, 'Départ', '10 Rue de Paris', NULL, '75001', 'Paris', 'FR', 48.8566000, 2.3522000, 0),
+       (102, 'Arrivée', '20 Rue de Marseille', NULL, '13001', 'Marseille', 'FR', 43.2965000, 5.3698000, 0)
 ON CONFLICT (id) DO NOTHING;
 
 INSERT INTO user_address (user_id, address_id, is_default)
@@ -28,16 +28,16 @@ INSERT INTO user_device (id, user_id, onesignal_player_id, platform, created_at)
 VALUES (1001, 10002, 'onesignal-player-client-001', 'web', now())
 ON CONFLICT (id) DO NOTHING;
 
-INSERT INTO document (id, storage_key, file_name, mime_type, size_bytes, sha256, type, created_at)
-VALUES (201, 'courier/id_livreur_001.pdf', 'id_livreur_001.pdf', 'application/pdf', 12345, 'aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa', 'COURIER_PROOF', now()),
-       (202, 'contracts/merchant_contract_001.pdf', 'merchant_contract_001.pdf', 'application/pdf', 23456, 'bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb', 'CONTRACT', now()),
-       (203, 'invoices/inv_2025_0001.pdf', 'inv_2025_0001.pdf', 'application/pdf', 34567, 'cccccccccccccccccccccccccccccccccccccccccccccccccccccccccccccccc', 'INVOICE', now())
+INSERT INTO document (id, storage_key, file_name, mime_type, size_bytes, sha256, type, storage_codec, preview_status, created_at)
+VALUES (201, 'courier/id_livreur_001.pdf', 'id_livreur_001.pdf', 'application/pdf', 12345, 'aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa', 'COURIER_PROOF', 'NONE', 'PENDING', now()),
+       (202, 'contracts/merchant_contract_001.pdf', 'merchant_contract_001.pdf', 'application/pdf', 23456, 'bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb', 'CONTRACT', 'NONE', 'PENDING', now()),
+       (203, 'invoices/inv_2025_0001.pdf', 'inv_2025_0001.pdf', 'application/pdf', 34567, 'cccccccccccccccccccccccccccccccccccccccccccccccccccccccccccccccc', 'INVOICE', 'NONE', 'PENDING', now())
 ON CONFLICT (id) DO NOTHING;
 
-INSERT INTO document_access (document_id, user_id, can_read)
-VALUES (201, 10003, true),
-       (202, 10004, true),
-       (203, 10002, true)
+INSERT INTO document_access (document_id, user_id, can_read, can_manage)
+VALUES (201, 10003, true, true),
+       (202, 10004, true, true),
+       (203, 10002, true, true)
 ON CONFLICT (document_id, user_id) DO NOTHING;
 
 INSERT INTO courier_profile (user_id, status, validated_at, vehicle_type, max_weight_kg, iban_masked)
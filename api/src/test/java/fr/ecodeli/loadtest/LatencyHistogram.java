@@ -0,0 +1,82 @@
+package fr.ecodeli.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of latencies in microseconds, safe for concurrent recording. Each power of two is
+ * split into {@value #SUB_BUCKETS} linear buckets, so reported percentiles are within about 1.6% of the
+ * recorded values whatever their magnitude, in a fixed amount of memory.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long micros) {
+        var value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        max.accumulate(value);
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            var count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        count.add(other.count());
+        max.accumulate(other.max());
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * @return the highest value equivalent to the given percentile, in microseconds
+     */
+    long percentile(double percentile) {
+        var total = count();
+        if (total == 0) {
+            return 0;
+        }
+        var target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), max());
+            }
+        }
+        return max();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        var shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var shift = index / SUB_BUCKETS - 1;
+        var subBucket = (long) (index % SUB_BUCKETS + SUB_BUCKETS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
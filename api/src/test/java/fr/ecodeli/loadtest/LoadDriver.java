@@ -0,0 +1,62 @@
+package fr.ecodeli.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives a running API with one virtual thread per client over the configured mix, then reports throughput,
+ * latency percentiles and the SQL statements per request of each operation. Used in process by
+ * {@link RequestPathLoadTest} and against a separate JVM by the {@code api-loadtest} module.
+ */
+final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    static HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    static LoadReport run(LoadTestOptions options, StubTokenIssuer issuer, HttpClient client, URI baseUri)
+            throws IOException, InterruptedException {
+        var recorder = new LoadRecorder();
+        var statements = new RequestStatements(client, baseUri);
+        var uploadBody = VirtualClient.uploadBody(options.uploadBytes());
+        var tokenLifetime = options.warmup().plus(options.duration()).plusMinutes(10);
+        var clients = new ArrayList<VirtualClient>(options.clients());
+        var imports = options.mix().getOrDefault(Operation.IMPORT, 0) > 0;
+        for (int i = 0; i < options.clients(); i++) {
+            var subject = "loadtest-" + i;
+            var email = String.format(Locale.ROOT, "load%d@loadtest.ecodeli.local", i);
+            var token = issuer.issue(subject, email, tokenLifetime, List.of("CLIENT"));
+            var adminToken = imports ? issuer.issue(subject, email, tokenLifetime, List.of("CLIENT", "ADMIN")) : null;
+            clients.add(new VirtualClient(client, baseUri, token, adminToken, options, recorder, uploadBody));
+        }
+
+        var measured = new EnumMap<Operation, RequestStatements.Totals>(Operation.class);
+        long elapsedNanos;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            clients.forEach(executor::submit);
+            Thread.sleep(options.warmup());
+            var before = statements.read();
+            var started = System.nanoTime();
+            recorder.startRecording();
+            Thread.sleep(options.duration());
+            recorder.stop();
+            elapsedNanos = System.nanoTime() - started;
+            statements.read().forEach((operation, after) ->
+                    measured.put(operation, after.minus(before.get(operation))));
+        }
+        return LoadReport.of(options, recorder, elapsedNanos, measured);
+    }
+}
@@ -0,0 +1,72 @@
+package fr.ecodeli.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the outcome of the requests completed while recording, per operation, and the users imported by
+ * them. Requests completed during the warmup are not recorded.
+ */
+final class LoadRecorder {
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final LongAdder importedRows = new LongAdder();
+    private volatile boolean recording;
+    private volatile boolean stopped;
+
+    LoadRecorder() {
+        for (var operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stopped = true;
+    }
+
+    boolean stopped() {
+        return stopped;
+    }
+
+    void success(Operation operation, long startedNanos) {
+        if (recording) {
+            stats.get(operation).latencies.record((System.nanoTime() - startedNanos) / 1_000);
+        }
+    }
+
+    void imported(long rows) {
+        if (recording) {
+            importedRows.add(rows);
+        }
+    }
+
+    long importedRows() {
+        return importedRows.sum();
+    }
+
+    void failure(Operation operation, String reason) {
+        if (recording) {
+            var operationStats = stats.get(operation);
+            operationStats.errors.increment();
+            operationStats.firstError.compareAndSet(null, reason);
+        }
+    }
+
+    OperationStats stats(Operation operation) {
+        return stats.get(operation);
+    }
+
+    static final class OperationStats {
+
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final AtomicReference<String> firstError = new AtomicReference<>();
+    }
+}
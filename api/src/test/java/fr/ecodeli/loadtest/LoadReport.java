@@ -0,0 +1,105 @@
+package fr.ecodeli.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Figures of a load test run. Latencies are in milliseconds; statements per request are those the API
+ * counted for the requests it served while recording. Imported rows per second are those the import
+ * responses reported as imported.
+ */
+record LoadReport(int clients,
+                  String mix,
+                  double seconds,
+                  List<Row> rows,
+                  Row total,
+                  double importedRowsPerSecond) {
+
+    static LoadReport of(LoadTestOptions options, LoadRecorder recorder, long elapsedNanos,
+                         Map<Operation, RequestStatements.Totals> statements) {
+        var seconds = elapsedNanos / 1e9;
+        var rows = new ArrayList<Row>();
+        var all = new LatencyHistogram();
+        long errors = 0;
+        var allStatements = RequestStatements.Totals.NONE;
+        for (var operation : Operation.values()) {
+            if (options.mix().getOrDefault(operation, 0) == 0) {
+                continue;
+            }
+            var stats = recorder.stats(operation);
+            var operationStatements = statements.getOrDefault(operation, RequestStatements.Totals.NONE);
+            rows.add(Row.of(operation.label(), stats.latencies, stats.errors.sum(), seconds,
+                    operationStatements.perRequest(), stats.firstError.get()));
+            all.merge(stats.latencies);
+            errors += stats.errors.sum();
+            allStatements = allStatements.plus(operationStatements);
+        }
+        return new LoadReport(options.clients(), options.describeMix(), seconds, List.copyOf(rows),
+                Row.of("total", all, errors, seconds, allStatements.perRequest(), null),
+                seconds == 0 ? 0 : recorder.importedRows() / seconds);
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%d clients, mix %s, %.1f s measured%n", clients, mix, seconds);
+        out.printf(Locale.ROOT, "%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "SQL/req");
+        for (var row : rows) {
+            print(out, row);
+        }
+        print(out, total);
+        if (importedRowsPerSecond > 0) {
+            out.printf(Locale.ROOT, "Imported users: %.0f rows/s%n", importedRowsPerSecond);
+        }
+        for (var row : rows) {
+            if (row.firstError() != null) {
+                out.printf("First %s error: %s%n", row.operation(), row.firstError());
+            }
+        }
+    }
+
+    private static void print(PrintStream out, Row row) {
+        out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", row.operation(),
+                row.requests(), row.errors(), row.throughput(), row.p50(), row.p99(), row.p999(), row.max(),
+                row.statementsPerRequest());
+    }
+
+    String toJson() {
+        return String.format(Locale.ROOT, """
+                {"clients":%d,"mix":"%s","seconds":%.3f,"importedRowsPerSecond":%.1f,
+                 "total":%s,
+                 "operations":[%s]}
+                """, clients, mix, seconds, importedRowsPerSecond, total.toJson(),
+                rows.stream().map(Row::toJson).collect(Collectors.joining(",")));
+    }
+
+    record Row(String operation,
+               long requests,
+               long errors,
+               double throughput,
+               double p50,
+               double p99,
+               double p999,
+               double max,
+               double statementsPerRequest,
+               String firstError) {
+
+        static Row of(String operation, LatencyHistogram latencies, long errors, double seconds,
+                      double statementsPerRequest, String firstError) {
+            var requests = latencies.count();
+            return new Row(operation, requests, errors, seconds == 0 ? 0 : requests / seconds,
+                    latencies.percentile(50) / 1e3, latencies.percentile(99) / 1e3,
+                    latencies.percentile(99.9) / 1e3, latencies.max() / 1e3, statementsPerRequest, firstError);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"operation\":\"%s\",\"requests\":%d,\"errors\":%d,\"throughput\":%.1f,"
+                            + "\"p50\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f,\"statementsPerRequest\":%.3f}",
+                    operation, requests, errors, throughput, p50, p99, p999, max, statementsPerRequest);
+        }
+    }
+}
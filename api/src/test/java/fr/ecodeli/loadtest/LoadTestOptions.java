@@ -0,0 +1,118 @@
+package fr.ecodeli.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Load test settings, read from {@code key=value} arguments. Durations use the ISO-8601 format, e.g.
+ * {@code PT60S}, and the mix is a list of relative weights such as {@code me:70,download:25,upload:5}. The
+ * {@code api-*} and {@code db-*} options only apply when the API runs in a separate JVM.
+ */
+record LoadTestOptions(int clients,
+                       Duration warmup,
+                       Duration duration,
+                       Duration think,
+                       Map<Operation, Integer> mix,
+                       int uploadBytes,
+                       int importRows,
+                       Path apiJar,
+                       int apiPort,
+                       List<String> apiJvmArgs,
+                       String dbUrl,
+                       String dbUser,
+                       String dbPassword,
+                       Path workDir) {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("clients", "2000"),
+            Map.entry("warmup", "PT15S"),
+            Map.entry("duration", "PT60S"),
+            Map.entry("think", "PT0S"),
+            Map.entry("mix", "me:70,download:25,upload:5"),
+            Map.entry("upload-bytes", "65536"),
+            Map.entry("import-rows", "1000"),
+            Map.entry("api-jar", "../api/target/quarkus-app/quarkus-run.jar"),
+            Map.entry("api-port", "8089"),
+            Map.entry("api-jvm-args", ""),
+            Map.entry("db-url", "jdbc:postgresql://localhost:5432/ecodeli_loadtest"),
+            Map.entry("db-user", "postgres"),
+            Map.entry("db-password", "postgres"),
+            Map.entry("work-dir", "target/loadtest"));
+
+    static LoadTestOptions parse(String[] args) {
+        var values = new HashMap<>(DEFAULTS);
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (separator <= 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of "
+                        + DEFAULTS.keySet().stream().sorted().collect(Collectors.joining(", ")));
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        var clients = Integer.parseInt(values.get("clients"));
+        if (clients <= 0) {
+            throw new IllegalArgumentException("clients must be positive");
+        }
+        return new LoadTestOptions(
+                clients,
+                Duration.parse(values.get("warmup")),
+                Duration.parse(values.get("duration")),
+                Duration.parse(values.get("think")),
+                parseMix(values.get("mix")),
+                Integer.parseInt(values.get("upload-bytes")),
+                Integer.parseInt(values.get("import-rows")),
+                Path.of(values.get("api-jar")),
+                Integer.parseInt(values.get("api-port")),
+                Arrays.stream(values.get("api-jvm-args").split(","))
+                        .map(String::trim)
+                        .filter(value -> !value.isEmpty())
+                        .toList(),
+                values.get("db-url"),
+                values.get("db-user"),
+                values.get("db-password"),
+                Path.of(values.get("work-dir")));
+    }
+
+    /**
+     * @return the same scenario for one of several separate-JVM runs, with extra API JVM options and a work
+     * directory of its own
+     */
+    LoadTestOptions forRun(String name, List<String> extraApiJvmArgs) {
+        var jvmArgs = new ArrayList<>(apiJvmArgs);
+        jvmArgs.addAll(extraApiJvmArgs);
+        return new LoadTestOptions(clients, warmup, duration, think, mix, uploadBytes, importRows, apiJar, apiPort,
+                List.copyOf(jvmArgs), dbUrl, dbUser, dbPassword, workDir.resolve(name));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        var mix = new EnumMap<Operation, Integer>(Operation.class);
+        for (var entry : value.split(",")) {
+            var parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry " + entry + ", expected operation:weight");
+            }
+            var weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative");
+            }
+            mix.put(Operation.parse(parts[0]), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    String describeMix() {
+        return mix.entrySet().stream()
+                .map(entry -> entry.getKey().label() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+}
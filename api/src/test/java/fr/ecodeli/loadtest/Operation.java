@@ -0,0 +1,31 @@
+package fr.ecodeli.loadtest;
+
+import java.util.Locale;
+
+/**
+ * A kind of request issued by the virtual clients, with the resource method the API records its metrics under.
+ */
+enum Operation {
+    ME("UserResource.me"),
+    UPLOAD("DocumentResource.upload"),
+    DOWNLOAD("DocumentResource.download"),
+    IMPORT("AdminResource.importUsers");
+
+    private final String resource;
+
+    Operation(String resource) {
+        this.resource = resource;
+    }
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    String resource() {
+        return resource;
+    }
+
+    static Operation parse(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+}
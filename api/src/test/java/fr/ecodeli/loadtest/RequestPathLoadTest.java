@@ -0,0 +1,40 @@
+package fr.ecodeli.loadtest;
+
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Load test of the request path with the API running in this JVM, against the Dev Services PostgreSQL and
+ * with tokens from a {@link StubTokenIssuer}. Tagged {@code load}, so it only runs with {@code -Pload};
+ * options are read from the {@code loadtest.args} system property, as for the {@code api-loadtest} module,
+ * and the report is written to {@code target/loadtest/report.json}.
+ */
+@QuarkusTest
+@Tag("load")
+@WithTestResource(StubTokenIssuerResource.class)
+class RequestPathLoadTest {
+
+    @TestHTTPResource("/")
+    URI baseUri;
+
+    StubTokenIssuer issuer;
+
+    @Test
+    void servesTheMixWithoutErrors() throws Exception {
+        var options = LoadTestOptions.parse(Arrays.stream(System.getProperty("loadtest.args", "").split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .toArray(String[]::new));
+        var report = LoadDriver.run(options, issuer, LoadDriver.httpClient(), baseUri);
+        report.print(System.out);
+        Files.createDirectories(options.workDir());
+        Files.writeString(options.workDir().resolve("report.json"), report.toJson());
+        Assertions.assertEquals(0, report.total().errors(), "Failed requests, see the first error of each operation");
+    }
+}
@@ -0,0 +1,69 @@
+package fr.ecodeli.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reads, from the API's Prometheus endpoint, the requests served and the SQL statements they executed, per
+ * operation. The API counts statements at the JDBC level within each request, so those sent through
+ * {@code Session.doWork} are included and those of background work, such as preview generation, are not.
+ */
+final class RequestStatements {
+
+    private static final String METRIC = "ecodeli_request_statements_";
+
+    private final HttpClient client;
+    private final HttpRequest request;
+
+    RequestStatements(HttpClient client, URI baseUri) {
+        this.client = client;
+        this.request = HttpRequest.newBuilder(baseUri.resolve("/q/metrics")).GET().build();
+    }
+
+    Map<Operation, Totals> read() throws IOException, InterruptedException {
+        var response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        if (response.statusCode() != 200) {
+            throw new IOException("Metrics endpoint answered " + response.statusCode());
+        }
+        var totals = new EnumMap<Operation, Totals>(Operation.class);
+        for (var operation : Operation.values()) {
+            totals.put(operation, Totals.NONE);
+        }
+        response.body().filter(line -> line.startsWith(METRIC)).forEach(line -> {
+            for (var operation : Operation.values()) {
+                if (!line.contains("resource=\"" + operation.resource() + "\"")) {
+                    continue;
+                }
+                var value = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                if (line.startsWith(METRIC + "count{")) {
+                    totals.compute(operation, (key, current) -> new Totals((long) value, current.statements()));
+                } else if (line.startsWith(METRIC + "sum{")) {
+                    totals.compute(operation, (key, current) -> new Totals(current.requests(), (long) value));
+                }
+            }
+        });
+        return totals;
+    }
+
+    record Totals(long requests, long statements) {
+
+        static final Totals NONE = new Totals(0, 0);
+
+        Totals minus(Totals other) {
+            return new Totals(requests - other.requests, statements - other.statements);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(requests + other.requests, statements + other.statements);
+        }
+
+        double perRequest() {
+            return requests == 0 ? 0 : (double) statements / requests;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package fr.ecodeli.loadtest;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.jose4j.jwk.RsaJsonWebKey;
+import org.jose4j.jwk.RsaJwkGenerator;
+import org.jose4j.jws.AlgorithmIdentifiers;
+import org.jose4j.jws.JsonWebSignature;
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.lang.JoseException;
+
+/**
+ * Stands in for Keycloak: signs access tokens shaped like the realm's with a key pair generated for the run.
+ * The API verifies them against {@link #publicKey()}, so no OIDC server is needed.
+ */
+final class StubTokenIssuer {
+
+    static final String ISSUER = "urn:ecodeli:loadtest";
+
+    private final RsaJsonWebKey key;
+
+    StubTokenIssuer() {
+        try {
+            this.key = RsaJwkGenerator.generateJwk(2048);
+        } catch (JoseException e) {
+            throw new IllegalStateException("Failed to generate the token signing key", e);
+        }
+    }
+
+    /**
+     * @return the base64 encoded X.509 public key, the format of {@code quarkus.oidc.public-key}
+     */
+    String publicKey() {
+        return Base64.getEncoder().encodeToString(key.getPublicKey().getEncoded());
+    }
+
+    String issue(String subject, String email, Duration lifetime, List<String> roles) {
+        var claims = new JwtClaims();
+        claims.setIssuer(ISSUER);
+        claims.setSubject(subject);
+        claims.setAudience("account");
+        claims.setIssuedAtToNow();
+        claims.setExpirationTimeMinutesInTheFuture(lifetime.toSeconds() / 60f);
+        claims.setGeneratedJwtId();
+        claims.setClaim("typ", "Bearer");
+        claims.setClaim("azp", "ecodeli");
+        claims.setClaim("email", email);
+        claims.setClaim("email_verified", true);
+        claims.setClaim("realm_access", Map.of("roles", roles));
+        var jws = new JsonWebSignature();
+        jws.setPayload(claims.toJson());
+        jws.setKey(key.getPrivateKey());
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.RSA_USING_SHA256);
+        try {
+            return jws.getCompactSerialization();
+        } catch (JoseException e) {
+            throw new IllegalStateException("Failed to sign a token for " + subject, e);
+        }
+    }
+}
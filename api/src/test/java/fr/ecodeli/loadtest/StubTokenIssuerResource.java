@@ -0,0 +1,32 @@
+package fr.ecodeli.loadtest;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import java.util.Map;
+
+/**
+ * Stands in for Keycloak in {@link RequestPathLoadTest}: enables the OIDC tenant, which the test profile
+ * turns off, with the public key of a {@link StubTokenIssuer} generated for the run, and injects the issuer
+ * into the test so it can sign the clients' tokens.
+ */
+public class StubTokenIssuerResource implements QuarkusTestResourceLifecycleManager {
+
+    private final StubTokenIssuer issuer = new StubTokenIssuer();
+
+    @Override
+    public Map<String, String> start() {
+        return Map.of(
+                "quarkus.oidc.tenant-enabled", "true",
+                "quarkus.oidc.auth-server-url", "",
+                "quarkus.oidc.public-key", issuer.publicKey(),
+                "quarkus.oidc.token.issuer", StubTokenIssuer.ISSUER);
+    }
+
+    @Override
+    public void inject(TestInjector testInjector) {
+        testInjector.injectIntoFields(issuer, new TestInjector.MatchesType(StubTokenIssuer.class));
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -0,0 +1,191 @@
+package fr.ecodeli.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * One user of the mobile application, issuing requests back to back, or with the configured think time,
+ * until the run stops. Each client has its own subject, so it is provisioned on its first request, and
+ * downloads the documents it uploaded itself. Imports are sent with an administrator token, each of
+ * {@code import-rows} new users with a profile and an address.
+ */
+final class VirtualClient implements Runnable {
+
+    private static final String BOUNDARY = "ecodeli-loadtest-boundary";
+    private static final Pattern DOCUMENT_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern IMPORTED = Pattern.compile("\"imported\"\\s*:\\s*(\\d+)");
+    private static final int KEPT_DOCUMENTS = 16;
+    private static final AtomicLong IMPORTED_USERS = new AtomicLong();
+    private static final String IMPORT_ROW = """
+            {"keycloakUserId":"import-%1$d","email":"import%1$d@loadtest.ecodeli.local","status":"ACTIVE",\
+            "profile":{"firstName":"Import","lastName":"N%1$d","defaultLanguage":"fr"},\
+            "addresses":[{"label":"Domicile","line1":"%2$d rue de la Roquette","postalCode":"75011",\
+            "city":"Paris","countryCode":"FR","latitude":%3$.6f,"longitude":%4$.6f,"isDefault":true}]}
+            """;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final String authorization;
+    private final String adminAuthorization;
+    private final LoadTestOptions options;
+    private final LoadRecorder recorder;
+    private final byte[] uploadBody;
+    private final Operation[] weightedOperations;
+    private final Deque<Long> documents = new ArrayDeque<>(KEPT_DOCUMENTS);
+
+    VirtualClient(HttpClient client, URI baseUri, String token, String adminToken, LoadTestOptions options,
+                  LoadRecorder recorder, byte[] uploadBody) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.authorization = "Bearer " + token;
+        this.adminAuthorization = adminToken == null ? null : "Bearer " + adminToken;
+        this.options = options;
+        this.recorder = recorder;
+        this.uploadBody = uploadBody;
+        this.weightedOperations = weightedOperations(options);
+    }
+
+    /**
+     * Builds the multipart body of an upload once, so every client sends the same bytes without copying them.
+     */
+    static byte[] uploadBody(int size) {
+        var content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        var head = ("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"fileName\"\r\n\r\nloadtest.bin\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"mimeType\"\r\n\r\napplication/octet-stream\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"type\"\r\n\r\nOTHER\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"loadtest.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        var tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        var body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        return body;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (options.mix().getOrDefault(Operation.DOWNLOAD, 0) > 0) {
+                execute(Operation.UPLOAD);
+            }
+            while (!recorder.stopped()) {
+                var operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+                execute(operation == Operation.DOWNLOAD && documents.isEmpty() ? Operation.UPLOAD : operation);
+                if (!options.think().isZero()) {
+                    Thread.sleep(options.think());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(Operation operation) throws InterruptedException {
+        var started = System.nanoTime();
+        try {
+            var status = switch (operation) {
+                case ME -> me();
+                case UPLOAD -> upload();
+                case DOWNLOAD -> download();
+                case IMPORT -> importUsers();
+            };
+            if (status >= 400) {
+                recorder.failure(operation, "HTTP " + status);
+            } else {
+                recorder.success(operation, started);
+            }
+        } catch (IOException e) {
+            recorder.failure(operation, e.toString());
+        }
+    }
+
+    private int me() throws IOException, InterruptedException {
+        var request = authorized("/api/v1/users/me").GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int upload() throws IOException, InterruptedException {
+        var request = authorized("/api/v1/documents")
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                .build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        var matcher = DOCUMENT_ID.matcher(response.body());
+        if (response.statusCode() < 400 && matcher.find()) {
+            if (documents.size() == KEPT_DOCUMENTS) {
+                documents.removeFirst();
+            }
+            documents.addLast(Long.parseLong(matcher.group(1)));
+        }
+        return response.statusCode();
+    }
+
+    private int download() throws IOException, InterruptedException {
+        var ids = List.copyOf(documents);
+        var id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        var request = authorized("/api/v1/documents/" + id + "/download")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int importUsers() throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(baseUri.resolve("/api/v1/admin/imports/users"))
+                .header("Authorization", adminAuthorization)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(importBody(options.importRows())))
+                .build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        var matcher = IMPORTED.matcher(response.body());
+        if (response.statusCode() < 400 && matcher.find()) {
+            recorder.imported(Long.parseLong(matcher.group(1)));
+        }
+        return response.statusCode();
+    }
+
+    /**
+     * @return NDJSON for {@code rows} users never imported before in this run, spread over Paris
+     */
+    private static String importBody(int rows) {
+        var body = new StringBuilder(rows * 400);
+        for (int i = 0; i < rows; i++) {
+            var n = IMPORTED_USERS.incrementAndGet();
+            body.append(String.format(Locale.ROOT, IMPORT_ROW,
+                    n, n % 200 + 1, 48.80 + (n % 1000) / 10_000d, 2.30 + (n / 1000 % 1000) / 10_000d));
+        }
+        return body.toString();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header("Authorization", authorization);
+    }
+
+    private static Operation[] weightedOperations(LoadTestOptions options) {
+        var operations = new ArrayList<Operation>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        return operations.toArray(Operation[]::new);
+    }
+}
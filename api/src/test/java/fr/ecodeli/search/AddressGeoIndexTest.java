@@ -0,0 +1,146 @@
+package fr.ecodeli.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Grid maintenance of {@link AddressGeoIndex} and its queries, checked against a brute-force scan of the same
+ * points.
+ */
+class AddressGeoIndexTest {
+
+    private final AddressGeoIndex index = new AddressGeoIndex();
+    private final Map<Long, double[]> points = new HashMap<>();
+
+    @Test
+    void removeMovesTheLastPointIntoTheFreedSlot() {
+        put(1, 48.8566, 2.3522);
+        put(2, 48.8570, 2.3525);
+        put(3, 45.7640, 4.8357);
+
+        // 3, the last slot, moves into the slot of 1 and its cell must follow it
+        remove(1);
+        Assertions.assertEquals(2, index.size());
+        assertHits(List.of(3L), index.withinRadius(45.7640, 4.8357, 100, 10));
+        assertHits(List.of(2L), index.withinRadius(48.8566, 2.3522, 1_000, 10));
+
+        remove(3);
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.withinRadius(45.7640, 4.8357, 100, 10).isEmpty());
+        assertHits(List.of(2L), index.nearest(48.8566, 2.3522, 5, 10_000));
+    }
+
+    @Test
+    void putMovesAnExistingPoint() {
+        put(1, 48.8566, 2.3522);
+        put(1, 43.2965, 5.3698);
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.withinRadius(48.8566, 2.3522, 1_000, 10).isEmpty());
+        var hits = index.withinRadius(43.2965, 5.3698, 10, 10);
+        assertHits(List.of(1L), hits);
+        Assertions.assertEquals(43.2965, hits.getFirst().latitude());
+        Assertions.assertEquals(5.3698, hits.getFirst().longitude());
+    }
+
+    @Test
+    void putWithoutCoordinatesRemovesThePoint() {
+        put(1, 48.8566, 2.3522);
+        index.put(new AddressSnapshot(1, "1 rue de Rivoli", "75001", "Paris", "FR", null, null));
+
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.nearest(48.8566, 2.3522, 1, 10_000).isEmpty());
+    }
+
+    @Test
+    void loadKeepsChangesMadeWhileItRuns() {
+        index.remove(1);
+        index.put(snapshot(2, 43.2965, 5.3698));
+        index.load(snapshot(1, 48.8566, 2.3522));
+        index.load(snapshot(2, 48.8566, 2.3522));
+        index.load(snapshot(3, 48.8570, 2.3525));
+        index.loadFinished();
+
+        Assertions.assertEquals(2, index.size());
+        assertHits(List.of(3L), index.withinRadius(48.8566, 2.3522, 1_000, 10));
+        assertHits(List.of(2L), index.withinRadius(43.2965, 5.3698, 10, 10));
+    }
+
+    @Test
+    void queriesMatchBruteForceAfterRandomChanges() {
+        var random = new Random(42);
+        for (long id = 1; id <= 5_000; id++) {
+            put(id, aroundParisLatitude(random), aroundParisLongitude(random));
+        }
+        for (int i = 0; i < 2_000; i++) {
+            var id = 1 + random.nextLong(5_000);
+            if (random.nextBoolean()) {
+                remove(id);
+            } else {
+                put(id, aroundParisLatitude(random), aroundParisLongitude(random));
+            }
+        }
+        Assertions.assertEquals(points.size(), index.size());
+
+        for (int i = 0; i < 200; i++) {
+            var latitude = aroundParisLatitude(random);
+            var longitude = aroundParisLongitude(random);
+            var radius = 50 + random.nextDouble(3_000);
+            assertHits(bruteForce(latitude, longitude, radius, Integer.MAX_VALUE),
+                    index.withinRadius(latitude, longitude, radius, Integer.MAX_VALUE));
+            assertHits(bruteForce(latitude, longitude, radius, 5), index.withinRadius(latitude, longitude, radius, 5));
+            var k = 1 + random.nextInt(20);
+            var maxMeters = 100 + random.nextDouble(20_000);
+            assertHits(bruteForce(latitude, longitude, maxMeters, k), index.nearest(latitude, longitude, k, maxMeters));
+        }
+    }
+
+    private void put(long id, double latitude, double longitude) {
+        index.put(snapshot(id, latitude, longitude));
+        points.put(id, new double[]{latitude, longitude});
+    }
+
+    private void remove(long id) {
+        index.remove(id);
+        points.remove(id);
+    }
+
+    private List<Long> bruteForce(double latitude, double longitude, double maxMeters, int limit) {
+        record Candidate(long id, double distance) {
+        }
+        var candidates = new ArrayList<Candidate>();
+        points.forEach((id, point) -> {
+            var distance = AddressGeoIndex.distanceMeters(latitude, longitude, point[0], point[1]);
+            if (distance <= maxMeters) {
+                candidates.add(new Candidate(id, distance));
+            }
+        });
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distance))
+                .limit(limit)
+                .map(Candidate::id)
+                .toList();
+    }
+
+    private static void assertHits(List<Long> expectedIds, List<GeoHit> hits) {
+        Assertions.assertEquals(expectedIds, hits.stream().map(GeoHit::addressId).toList());
+    }
+
+    private static AddressSnapshot snapshot(long id, double latitude, double longitude) {
+        return new AddressSnapshot(id, id + " rue de Rivoli", "75001", "Paris", "FR", latitude, longitude);
+    }
+
+    private static double aroundParisLatitude(Random random) {
+        return 48.80 + random.nextDouble(0.12);
+    }
+
+    private static double aroundParisLongitude(Random random) {
+        return 2.25 + random.nextDouble(0.17);
+    }
+}
@@ -0,0 +1,141 @@
+package fr.ecodeli.web.http;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@code Range} header parsing against a 1000-byte representation: an empty optional means the header is
+ * ignored and the whole representation sent, an empty list means 416.
+ */
+class ByteRangeTest {
+
+    private static final long TOTAL = 1000;
+
+    @Test
+    void closedRange() {
+        assertRanges("bytes=0-499", new ByteRange(0, 499));
+        assertRanges("bytes=500-500", new ByteRange(500, 500));
+        assertRanges("BYTES=100-199", new ByteRange(100, 199));
+    }
+
+    @Test
+    void closedRangeEndingPastTheRepresentationIsTruncated() {
+        assertRanges("bytes=900-5000", new ByteRange(900, 999));
+    }
+
+    @Test
+    void openEndedRange() {
+        assertRanges("bytes=900-", new ByteRange(900, 999));
+        assertRanges("bytes=0-", new ByteRange(0, 999));
+    }
+
+    @Test
+    void suffixRange() {
+        assertRanges("bytes=-100", new ByteRange(900, 999));
+        assertRanges("bytes=-5000", new ByteRange(0, 999));
+    }
+
+    @Test
+    void unsatisfiableRanges() {
+        assertUnsatisfiable("bytes=1000-");
+        assertUnsatisfiable("bytes=1000-1999");
+        assertUnsatisfiable("bytes=-0");
+        assertUnsatisfiable("bytes=1500-1600, 2000-");
+        Assertions.assertEquals(Optional.of(List.of()), ByteRange.parse("bytes=-10", 0));
+    }
+
+    @Test
+    void unsatisfiableRangesAreDroppedFromASatisfiableSet() {
+        assertRanges("bytes=2000-2100, 0-9", new ByteRange(0, 9));
+    }
+
+    @Test
+    void overlappingRangesAreMerged() {
+        assertRanges("bytes=0-199, 100-299", new ByteRange(0, 299));
+        assertRanges("bytes=500-599, 0-999", new ByteRange(0, 999));
+        assertRanges("bytes=-100, 850-", new ByteRange(850, 999));
+    }
+
+    @Test
+    void adjacentRangesAreMerged() {
+        assertRanges("bytes=0-99, 100-199", new ByteRange(0, 199));
+        assertRanges("bytes=100-199,0-99", new ByteRange(0, 199));
+    }
+
+    @Test
+    void disjointRangesAreSortedInFileOrder() {
+        assertRanges("bytes=500-599, 0-99, 201-300",
+                new ByteRange(0, 99), new ByteRange(201, 300), new ByteRange(500, 599));
+    }
+
+    @Test
+    void tooManyRangesAreIgnored() {
+        var header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i < 17; i++) {
+            header.append(',').append(i * 10).append('-').append(i * 10);
+        }
+        Assertions.assertEquals(Optional.empty(), ByteRange.parse(header.toString(), TOTAL));
+
+        var sixteen = header.substring(0, header.lastIndexOf(","));
+        Assertions.assertEquals(16, ByteRange.parse(sixteen, TOTAL).orElseThrow().size());
+    }
+
+    @Test
+    void malformedHeadersAreIgnored() {
+        assertIgnored(null);
+        assertIgnored("");
+        assertIgnored("items=0-9");
+        assertIgnored("bytes=");
+        assertIgnored("bytes=abc");
+        assertIgnored("bytes=5");
+        assertIgnored("bytes=-");
+        assertIgnored("bytes=9-5");
+        assertIgnored("bytes=a-9");
+        assertIgnored("bytes=0-9, x");
+        assertIgnored("bytes=99999999999999999999-");
+    }
+
+    @Test
+    void signedBoundsAreMalformed() {
+        assertIgnored("bytes=--5");
+        assertIgnored("bytes=-+5");
+        assertIgnored("bytes=+5-9");
+        assertIgnored("bytes=5--9");
+        assertIgnored("bytes=0-+9");
+    }
+
+    @Test
+    void coalesceKeepsASingleRange() {
+        var ranges = List.of(new ByteRange(10, 20));
+
+        Assertions.assertSame(ranges, ByteRange.coalesce(ranges));
+    }
+
+    @Test
+    void coalesceMergesContainedRanges() {
+        Assertions.assertEquals(List.of(new ByteRange(0, 100)), ByteRange.coalesce(
+                List.of(new ByteRange(10, 20), new ByteRange(0, 100), new ByteRange(50, 60))));
+    }
+
+    @Test
+    void lengthAndContentRange() {
+        var range = new ByteRange(900, 999);
+
+        Assertions.assertEquals(100, range.length());
+        Assertions.assertEquals("bytes 900-999/1000", range.contentRange(TOTAL));
+    }
+
+    private static void assertRanges(String header, ByteRange... expected) {
+        Assertions.assertEquals(Optional.of(List.of(expected)), ByteRange.parse(header, TOTAL), header);
+    }
+
+    private static void assertUnsatisfiable(String header) {
+        Assertions.assertEquals(Optional.of(List.of()), ByteRange.parse(header, TOTAL), header);
+    }
+
+    private static void assertIgnored(String header) {
+        Assertions.assertEquals(Optional.empty(), ByteRange.parse(header, TOTAL), header);
+    }
+}
@@ -0,0 +1,51 @@
+package fr.ecodeli.web.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.SecurityAttribute;
+import io.quarkus.test.security.TestSecurity;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Number of statements Hibernate prepares for the endpoints the front end calls the most, as the seeded client.
+ */
+@QuarkusTest
+@TestSecurity(user = "client@ecodeli.local", attributes = @SecurityAttribute(key = "sub", value = "kc-client-001"))
+class UserResourceStatementsTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @BeforeEach
+    void resolveUser() {
+        // The first request caches the user's identity, so only the endpoint's own statements are counted
+        RestAssured.get("/api/v1/users/me").then().statusCode(200);
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void meLoadsUserProfileAndAddressesInOneStatement() {
+        RestAssured.get("/api/v1/users/me")
+                .then()
+                .statusCode(200)
+                .body("email", Matchers.equalTo("client@ecodeli.local"));
+
+        Assertions.assertEquals(1, sessionFactory.getStatistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void addressesLoadOnePageInOneStatement() {
+        RestAssured.get("/api/v1/users/me/addresses")
+                .then()
+                .statusCode(200)
+                .body("items", Matchers.hasSize(1))
+                .body("nextCursor", Matchers.nullValue());
+
+        Assertions.assertEquals(1, sessionFactory.getStatistics().getPrepareStatementCount());
+    }
+}